@@ -0,0 +1,53 @@
+package model;
+
+/**
+ * Reservation count and revenue of one hotel over a period, as listed in the summary of a chain report bundle.
+ */
+public class HotelReservationTotals {
+    private final Long hotelId;
+    private final String hotelName;
+    private final String city;
+    private final long reservationCount;
+    private final long paidCount;
+    private final double totalRevenue;
+
+    public HotelReservationTotals(Long hotelId, String hotelName, String city,
+                                  long reservationCount, long paidCount, double totalRevenue) {
+        this.hotelId = hotelId;
+        this.hotelName = hotelName;
+        this.city = city;
+        this.reservationCount = reservationCount;
+        this.paidCount = paidCount;
+        this.totalRevenue = totalRevenue;
+    }
+
+    public Long getHotelId() {
+        return hotelId;
+    }
+
+    public String getHotelName() {
+        return hotelName;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public long getReservationCount() {
+        return reservationCount;
+    }
+
+    public long getPaidCount() {
+        return paidCount;
+    }
+
+    public double getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    @Override
+    public String toString() {
+        return "HotelReservationTotals{hotelId=" + hotelId + ", hotelName='" + hotelName + "', reservationCount=" +
+                reservationCount + ", totalRevenue=" + totalRevenue + "}";
+    }
+}
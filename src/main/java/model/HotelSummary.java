@@ -0,0 +1,48 @@
+package model;
+
+import java.util.Objects;
+
+/**
+ * Id, name and city of a hotel: what the hotel selectors display, without the hotel's rooms, location or chain.
+ */
+public class HotelSummary {
+    private final Long id;
+    private final String name;
+    private final String city;
+
+    public HotelSummary(Long id, String name, String city) {
+        this.id = id;
+        this.name = name;
+        this.city = city;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        HotelSummary that = (HotelSummary) o;
+        return Objects.equals(id, that.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id);
+    }
+
+    @Override
+    public String toString() {
+        return name + (city != null ? " - " + city : "");
+    }
+}
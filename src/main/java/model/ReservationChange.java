@@ -0,0 +1,52 @@
+package model;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the incremental reservation export: a reservation inserted or updated, with its current values,
+ * or the id of a deleted one.
+ */
+public class ReservationChange {
+    public enum Type {
+        UPSERT, DELETE
+    }
+
+    private final Type type;
+    private final Long reservationId;
+    private final Reservation reservation;
+    private final LocalDateTime changedAt;
+
+    private ReservationChange(Type type, Long reservationId, Reservation reservation, LocalDateTime changedAt) {
+        this.type = type;
+        this.reservationId = reservationId;
+        this.reservation = reservation;
+        this.changedAt = changedAt;
+    }
+
+    public static ReservationChange upsert(Reservation reservation) {
+        return new ReservationChange(Type.UPSERT, reservation.getId(), reservation, reservation.getUpdatedAt());
+    }
+
+    public static ReservationChange delete(Long reservationId, LocalDateTime deletedAt) {
+        return new ReservationChange(Type.DELETE, reservationId, null, deletedAt);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public Long getReservationId() {
+        return reservationId;
+    }
+
+    /**
+     * The reservation's current values; null for a deletion.
+     */
+    public Reservation getReservation() {
+        return reservation;
+    }
+
+    public LocalDateTime getChangedAt() {
+        return changedAt;
+    }
+}
@@ -0,0 +1,39 @@
+package model;
+
+/**
+ * Number of rooms and price range of one room type, within a hotel or across all hotels.
+ */
+public class RoomTypeStats {
+    private final String roomType;
+    private final int roomCount;
+    private final double minPrice;
+    private final double maxPrice;
+
+    public RoomTypeStats(String roomType, int roomCount, double minPrice, double maxPrice) {
+        this.roomType = roomType;
+        this.roomCount = roomCount;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+    }
+
+    public String getRoomType() {
+        return roomType;
+    }
+
+    public int getRoomCount() {
+        return roomCount;
+    }
+
+    public double getMinPrice() {
+        return minPrice;
+    }
+
+    public double getMaxPrice() {
+        return maxPrice;
+    }
+
+    @Override
+    public String toString() {
+        return roomType + " (" + roomCount + " camere, " + minPrice + " - " + maxPrice + " RON/noapte)";
+    }
+}
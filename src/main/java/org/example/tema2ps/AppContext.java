@@ -0,0 +1,178 @@
+package org.example.tema2ps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repository.ChainRepository;
+import repository.HotelRepository;
+import repository.LocationRepository;
+import repository.ReferenceDataCache;
+import repository.ReservationRepository;
+import repository.RoomAvailabilityIndex;
+import repository.RoomRepository;
+import repository.RoomTypeCatalog;
+import service.ChainService;
+import service.ExportJobManager;
+import service.HotelService;
+import service.LocationService;
+import service.ReportService;
+import service.ReservationService;
+import service.RoomService;
+import service.ServiceExecutor;
+import util.CSVExporter;
+import util.DocExporter;
+import util.JsonExporter;
+import util.XlsxExporter;
+import viewmodel.HotelViewModel;
+import viewmodel.ReportViewModel;
+import viewmodel.ReservationViewModel;
+import viewmodel.RoomViewModel;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Builds the application's single graph of repositories and services and owns its lifecycle.
+ * Controllers are created through createController (set as the FXMLLoader controller factory),
+ * so they and their view models share these instances, and with them every cache, index and pool.
+ */
+public class AppContext {
+    private static final Logger logger = LoggerFactory.getLogger(AppContext.class);
+    // Kept well below the connection pool size (10), so background loads never starve writes and exports
+    private static final int SERVICE_THREADS = 4;
+    // Exports hold a connection for as long as they stream; with the service workers this stays within the pool
+    private static final int EXPORT_THREADS = 2;
+    private static final int EXPORT_QUEUE_CAPACITY = 16;
+    private static final String CHANGE_TRACKING_MIGRATION = "db/003_rezervari_modificari.sql";
+
+    private final ReferenceDataCache referenceDataCache;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomTypeCatalog roomTypeCatalog;
+    private final ServiceExecutor serviceExecutor;
+    private final ExportJobManager exportJobManager;
+
+    private final LocationRepository locationRepository;
+    private final ChainRepository chainRepository;
+    private final HotelRepository hotelRepository;
+    private final RoomRepository roomRepository;
+    private final ReservationRepository reservationRepository;
+
+    private final LocationService locationService;
+    private final ChainService chainService;
+    private final HotelService hotelService;
+    private final RoomService roomService;
+    private final ReservationService reservationService;
+    private final ReportService reportService;
+
+    private boolean started;
+
+    public AppContext() {
+        this.referenceDataCache = new ReferenceDataCache();
+        this.availabilityIndex = new RoomAvailabilityIndex();
+        this.roomTypeCatalog = new RoomTypeCatalog();
+        this.serviceExecutor = new ServiceExecutor(SERVICE_THREADS);
+        this.exportJobManager = new ExportJobManager(EXPORT_THREADS, EXPORT_QUEUE_CAPACITY);
+
+        this.locationRepository = new LocationRepository(referenceDataCache);
+        this.chainRepository = new ChainRepository(referenceDataCache);
+        this.hotelRepository = new HotelRepository(referenceDataCache);
+        this.roomRepository = new RoomRepository(availabilityIndex, roomTypeCatalog);
+        this.reservationRepository = new ReservationRepository(availabilityIndex);
+
+        this.locationService = new LocationService(locationRepository, serviceExecutor);
+        this.chainService = new ChainService(chainRepository, hotelRepository, serviceExecutor);
+        this.hotelService = new HotelService(hotelRepository, locationRepository, roomRepository, serviceExecutor);
+        this.roomService = new RoomService(roomRepository, hotelRepository, availabilityIndex, serviceExecutor);
+        this.reservationService = new ReservationService(reservationRepository, roomRepository, availabilityIndex,
+                serviceExecutor);
+        this.reportService = new ReportService(reservationService, roomService, hotelService,
+                new CSVExporter(), new DocExporter(), new JsonExporter(), new XlsxExporter(), exportJobManager);
+    }
+
+    /**
+     * Checks the schema and loads the in-memory indexes up front, so the first screen does not pay for them.
+     * Runs before the UI is shown, off the JavaFX application thread.
+     * Fails if the change-tracking migration has not been applied, since every reservation write depends on it.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        if (Boolean.FALSE.equals(reservationRepository.hasChangeTracking())) {
+            logger.error("Schema bazei de date nu conține rezervari.updated_at și rezervari_sterse; " +
+                    "aplicați scriptul {} înainte de pornire", CHANGE_TRACKING_MIGRATION);
+            throw new IllegalStateException("Lipsește migrarea " + CHANGE_TRACKING_MIGRATION);
+        }
+        availabilityIndex.refresh();
+        roomTypeCatalog.refresh();
+        started = true;
+        logger.info("Contextul aplicației a fost pornit");
+    }
+
+    public synchronized void stop() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        exportJobManager.shutdown();
+        serviceExecutor.shutdown();
+        referenceDataCache.logStats();
+        reservationService.logCacheStats();
+        DBConnection.shutdown();
+        logger.info("Contextul aplicației a fost oprit");
+    }
+
+    /**
+     * FXMLLoader controller factory: controllers taking an AppContext get this one, others are built with their no-arg constructor.
+     */
+    public Object createController(Class<?> type) {
+        try {
+            for (Constructor<?> constructor : type.getConstructors()) {
+                if (constructor.getParameterCount() == 1 && constructor.getParameterTypes()[0] == AppContext.class) {
+                    return constructor.newInstance(this);
+                }
+            }
+            return type.getConstructor().newInstance();
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Nu s-a putut crea controller-ul " + type.getName(), e);
+        }
+    }
+
+    public HotelViewModel createHotelViewModel() {
+        return new HotelViewModel(hotelService, chainService, locationService);
+    }
+
+    public RoomViewModel createRoomViewModel() {
+        return new RoomViewModel(roomService, hotelService);
+    }
+
+    public ReservationViewModel createReservationViewModel() {
+        return new ReservationViewModel(reservationService, roomService, hotelService);
+    }
+
+    public ReportViewModel createReportViewModel() {
+        return new ReportViewModel(hotelService, chainService, reportService);
+    }
+
+    public LocationService getLocationService() {
+        return locationService;
+    }
+
+    public ChainService getChainService() {
+        return chainService;
+    }
+
+    public HotelService getHotelService() {
+        return hotelService;
+    }
+
+    public RoomService getRoomService() {
+        return roomService;
+    }
+
+    public ReservationService getReservationService() {
+        return reservationService;
+    }
+
+    public ReportService getReportService() {
+        return reportService;
+    }
+}
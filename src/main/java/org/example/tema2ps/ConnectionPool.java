@@ -0,0 +1,399 @@
+package org.example.tema2ps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded pool of physical JDBC connections.
+ * Borrowed connections are proxies whose close() hands the physical connection back to the pool.
+ */
+public class ConnectionPool {
+    private static final Logger logger = LoggerFactory.getLogger(ConnectionPool.class);
+
+    // Connections used more recently than this are handed out without a validation round trip
+    private static final long VALIDATION_BYPASS_MILLIS = 500;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final String url;
+    private final String user;
+    private final String password;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition connectionAvailable = lock.newCondition();
+    private final Deque<PooledConnection> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService housekeeper;
+
+    // Guarded by lock
+    private int totalConnections;
+    private int activeConnections;
+    private int waiters;
+    private long borrowCount;
+    private long totalBorrowWaitNanos;
+    private boolean shutdown;
+
+    public ConnectionPool(String url, String user, String password, int maxSize,
+                          long borrowTimeoutMillis, long idleTimeoutMillis, long maxLifetimeMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.url = url;
+        this.user = user;
+        this.password = password;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+
+        this.housekeeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-housekeeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1000, idleTimeoutMillis / 2);
+        housekeeper.scheduleWithFixedDelay(this::evictIdleConnections, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    public Connection borrow() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMillis);
+
+        while (true) {
+            PooledConnection candidate = null;
+            boolean createNew = false;
+
+            lock.lock();
+            try {
+                while (true) {
+                    if (shutdown) {
+                        throw new SQLException("Pool-ul de conexiuni a fost închis");
+                    }
+                    candidate = idle.pollFirst();
+                    if (candidate != null) {
+                        break;
+                    }
+                    if (totalConnections < maxSize) {
+                        totalConnections++;
+                        createNew = true;
+                        break;
+                    }
+
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new SQLException("Timeout la obținerea unei conexiuni din pool după "
+                                + borrowTimeoutMillis + " ms (active: " + activeConnections + ", max: " + maxSize + ")");
+                    }
+                    waiters++;
+                    try {
+                        connectionAvailable.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLException("Întrerupt în așteptarea unei conexiuni din pool", e);
+                    } finally {
+                        waiters--;
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            if (createNew) {
+                try {
+                    candidate = new PooledConnection(DriverManager.getConnection(url, user, password));
+                    logger.debug("Conexiune fizică nouă deschisă în pool");
+                } catch (SQLException e) {
+                    discard(null);
+                    throw e;
+                }
+            } else if (!isUsable(candidate)) {
+                discard(candidate);
+                continue;
+            }
+
+            lock.lock();
+            try {
+                activeConnections++;
+                borrowCount++;
+                totalBorrowWaitNanos += System.nanoTime() - start;
+            } finally {
+                lock.unlock();
+            }
+            return candidate.lease();
+        }
+    }
+
+    private boolean isUsable(PooledConnection pooled) {
+        long now = System.currentTimeMillis();
+        if (pooled.isExpired(now)) {
+            return false;
+        }
+        if (now - pooled.lastReturnedAt < VALIDATION_BYPASS_MILLIS) {
+            return true;
+        }
+        try {
+            return pooled.physical.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            logger.debug("Validarea conexiunii din pool a eșuat", e);
+            return false;
+        }
+    }
+
+    private void release(PooledConnection pooled) {
+        boolean reusable = !pooled.isExpired(System.currentTimeMillis());
+        if (reusable) {
+            try {
+                if (pooled.physical.isClosed()) {
+                    reusable = false;
+                } else if (!pooled.physical.getAutoCommit()) {
+                    // Abandoned transaction: never leak uncommitted work into the next borrower
+                    pooled.physical.rollback();
+                    pooled.physical.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                logger.debug("Resetarea conexiunii returnate în pool a eșuat", e);
+                reusable = false;
+            }
+        }
+
+        lock.lock();
+        try {
+            activeConnections--;
+            if (reusable && !shutdown) {
+                pooled.lastReturnedAt = System.currentTimeMillis();
+                idle.offerFirst(pooled);
+                connectionAvailable.signal();
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        discard(pooled);
+    }
+
+    private void discard(PooledConnection pooled) {
+        lock.lock();
+        try {
+            totalConnections--;
+            connectionAvailable.signal();
+        } finally {
+            lock.unlock();
+        }
+        if (pooled != null) {
+            closeQuietly(pooled.physical);
+        }
+    }
+
+    private void evictIdleConnections() {
+        List<PooledConnection> evicted = new ArrayList<>();
+        long now = System.currentTimeMillis();
+
+        lock.lock();
+        try {
+            Iterator<PooledConnection> iterator = idle.iterator();
+            while (iterator.hasNext()) {
+                PooledConnection pooled = iterator.next();
+                if (pooled.isExpired(now) || now - pooled.lastReturnedAt > idleTimeoutMillis) {
+                    iterator.remove();
+                    totalConnections--;
+                    evicted.add(pooled);
+                }
+            }
+            if (!evicted.isEmpty()) {
+                connectionAvailable.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        for (PooledConnection pooled : evicted) {
+            closeQuietly(pooled.physical);
+        }
+        if (!evicted.isEmpty()) {
+            logger.debug("Au fost eliminate {} conexiuni inactive din pool", evicted.size());
+        }
+    }
+
+    public Stats getStats() {
+        lock.lock();
+        try {
+            double averageWaitMillis = borrowCount == 0 ? 0.0
+                    : totalBorrowWaitNanos / (double) borrowCount / 1_000_000.0;
+            return new Stats(activeConnections, idle.size(), waiters, totalConnections, maxSize,
+                    borrowCount, averageWaitMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void shutdown() {
+        List<PooledConnection> toClose;
+        lock.lock();
+        try {
+            if (shutdown) {
+                return;
+            }
+            shutdown = true;
+            toClose = new ArrayList<>(idle);
+            totalConnections -= idle.size();
+            idle.clear();
+            connectionAvailable.signalAll();
+        } finally {
+            lock.unlock();
+        }
+
+        housekeeper.shutdownNow();
+        for (PooledConnection pooled : toClose) {
+            closeQuietly(pooled.physical);
+        }
+        logger.info("Pool-ul de conexiuni a fost închis");
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Eroare la închiderea conexiunii fizice", e);
+        }
+    }
+
+    private class PooledConnection {
+        private final Connection physical;
+        private final long createdAt;
+        private long lastReturnedAt;
+
+        PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.createdAt = System.currentTimeMillis();
+            this.lastReturnedAt = createdAt;
+        }
+
+        boolean isExpired(long now) {
+            return maxLifetimeMillis > 0 && now - createdAt > maxLifetimeMillis;
+        }
+
+        Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    new LeaseHandler(this));
+        }
+    }
+
+    /**
+     * Handle given to callers; closing it returns the physical connection to the pool exactly once.
+     */
+    private class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pooled;
+        private boolean closed;
+
+        LeaseHandler(PooledConnection pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || pooled.physical.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "PooledConnection[" + pooled.physical + "]";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Conexiunea a fost deja returnată în pool");
+            }
+            try {
+                return method.invoke(pooled.physical, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+    }
+
+    public static final class Stats {
+        private final int active;
+        private final int idle;
+        private final int waiters;
+        private final int total;
+        private final int maxSize;
+        private final long borrowCount;
+        private final double averageBorrowWaitMillis;
+
+        Stats(int active, int idle, int waiters, int total, int maxSize, long borrowCount, double averageBorrowWaitMillis) {
+            this.active = active;
+            this.idle = idle;
+            this.waiters = waiters;
+            this.total = total;
+            this.maxSize = maxSize;
+            this.borrowCount = borrowCount;
+            this.averageBorrowWaitMillis = averageBorrowWaitMillis;
+        }
+
+        public int getActive() {
+            return active;
+        }
+
+        public int getIdle() {
+            return idle;
+        }
+
+        public int getWaiters() {
+            return waiters;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public int getMaxSize() {
+            return maxSize;
+        }
+
+        public long getBorrowCount() {
+            return borrowCount;
+        }
+
+        public double getAverageBorrowWaitMillis() {
+            return averageBorrowWaitMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("active=%d, idle=%d, waiters=%d, total=%d/%d, borrows=%d, avgWait=%.3f ms",
+                    active, idle, waiters, total, maxSize, borrowCount, averageBorrowWaitMillis);
+        }
+    }
+}
@@ -4,18 +4,29 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class DBConnection {
     private static final Logger logger = LoggerFactory.getLogger(DBConnection.class);
-    private static final String URL = "jdbc:mysql://localhost:3306/hotel_chain";
+    // Server-side prepared statements, cached per physical connection and reused across borrows.
+    // Statements with a fetch size read their rows through a server-side cursor instead of buffering the whole result.
+    private static final String URL = "jdbc:mysql://localhost:3306/hotel_chain" +
+            "?useServerPrepStmts=true&cachePrepStmts=true&prepStmtCacheSize=250&prepStmtCacheSqlLimit=2048" +
+            "&useCursorFetch=true";
     private static final String USER = "root";
     private static final String PASSWORD = "root";
 
+    // Pool settings
+    private static final int POOL_MAX_SIZE = 10;
+    private static final long BORROW_TIMEOUT_MILLIS = 10_000;
+    private static final long IDLE_TIMEOUT_MILLIS = 5 * 60_000;
+    private static final long MAX_LIFETIME_MILLIS = 30 * 60_000;
+
+    private static volatile ConnectionPool pool;
+
     public static Connection getConnection() throws SQLException {
         try {
-            Connection conn = DriverManager.getConnection(URL, USER, PASSWORD);
+            Connection conn = getPool().borrow();
             logger.debug("Conexiune reușită la baza de date");
             return conn;
         } catch (SQLException e) {
@@ -23,4 +34,32 @@ public class DBConnection {
             throw e;
         }
     }
-}
\ No newline at end of file
+
+    public static ConnectionPool.Stats getPoolStats() {
+        return getPool().getStats();
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            logger.info("Statistici pool la închidere: {}", pool.getStats());
+            StatementRegistry.logStats();
+            pool.shutdown();
+            pool = null;
+        }
+    }
+
+    private static ConnectionPool getPool() {
+        ConnectionPool current = pool;
+        if (current == null) {
+            synchronized (DBConnection.class) {
+                current = pool;
+                if (current == null) {
+                    current = new ConnectionPool(URL, USER, PASSWORD, POOL_MAX_SIZE,
+                            BORROW_TIMEOUT_MILLIS, IDLE_TIMEOUT_MILLIS, MAX_LIFETIME_MILLIS);
+                    pool = current;
+                }
+            }
+        }
+        return current;
+    }
+}
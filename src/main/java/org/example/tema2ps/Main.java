@@ -7,10 +7,19 @@ import javafx.scene.Scene;
 import javafx.stage.Stage;
 
 public class Main extends Application {
+    private AppContext context;
+
+    @Override
+    public void init() {
+        context = new AppContext();
+        context.start();
+    }
+
     @Override
     public void start(Stage primaryStage) throws Exception {
         try {
             FXMLLoader loader = new FXMLLoader(getClass().getResource("/view/main.fxml"));
+            loader.setControllerFactory(context::createController);
             Parent root = loader.load();
             Scene scene = new Scene(root, 1200, 800);
             try {
@@ -26,6 +35,11 @@ public class Main extends Application {
         }
     }
 
+    @Override
+    public void stop() {
+        context.stop();
+    }
+
     public static void main(String[] args) {
         launch(args);
     }
@@ -0,0 +1,214 @@
+package org.example.tema2ps;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Named SQL statements shared by all repositories.
+ * Repositories define their statements once, at class initialization, and prepare them by name on a pooled connection.
+ * Connector/J keeps the server-side prepared statement of every closed statement in a per-connection cache
+ * (see the cachePrepStmts/useServerPrepStmts flags in DBConnection), so preparing the same SQL again on a pooled
+ * connection does not reach the server's parser. Fetch size and query timeout are applied here, and every
+ * execution is counted and timed per statement name.
+ */
+public final class StatementRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(StatementRegistry.class);
+
+    public static final int DEFAULT_QUERY_TIMEOUT_SECONDS = 30;
+    public static final int DEFAULT_FETCH_SIZE = 0;
+    public static final int STREAMING_FETCH_SIZE = 500;
+
+    private static final Map<String, Definition> definitions = new ConcurrentHashMap<>();
+
+    private StatementRegistry() {
+    }
+
+    /**
+     * Registers a statement and returns its name, so it can be kept in a constant.
+     */
+    public static String define(String name, String sql) {
+        return define(name, sql, DEFAULT_FETCH_SIZE, DEFAULT_QUERY_TIMEOUT_SECONDS, false);
+    }
+
+    /**
+     * Registers an INSERT whose generated keys are read back.
+     */
+    public static String defineInsert(String name, String sql) {
+        return define(name, sql, DEFAULT_FETCH_SIZE, DEFAULT_QUERY_TIMEOUT_SECONDS, true);
+    }
+
+    /**
+     * Registers a query whose rows are read through a server-side cursor, STREAMING_FETCH_SIZE rows per round trip,
+     * and which has no timeout, since its duration depends on the consumer.
+     */
+    public static String defineStreaming(String name, String sql) {
+        return define(name, sql, STREAMING_FETCH_SIZE, 0, false);
+    }
+
+    public static String define(String name, String sql, int fetchSize, int queryTimeoutSeconds, boolean returnGeneratedKeys) {
+        Definition previous = definitions.putIfAbsent(name,
+                new Definition(name, sql, fetchSize, queryTimeoutSeconds, returnGeneratedKeys));
+        if (previous != null && !previous.sql.equals(sql)) {
+            throw new IllegalStateException("Instrucțiunea " + name + " este deja definită cu alt SQL");
+        }
+        return name;
+    }
+
+    public static PreparedStatement prepare(Connection conn, String name) throws SQLException {
+        Definition definition = definitions.get(name);
+        if (definition == null) {
+            throw new SQLException("Instrucțiune SQL necunoscută: " + name);
+        }
+
+        PreparedStatement stmt = definition.returnGeneratedKeys
+                ? conn.prepareStatement(definition.sql, Statement.RETURN_GENERATED_KEYS)
+                : conn.prepareStatement(definition.sql);
+        if (definition.fetchSize != DEFAULT_FETCH_SIZE) {
+            stmt.setFetchSize(definition.fetchSize);
+        }
+        if (definition.queryTimeoutSeconds > 0) {
+            stmt.setQueryTimeout(definition.queryTimeoutSeconds);
+        }
+
+        return (PreparedStatement) Proxy.newProxyInstance(
+                PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class},
+                new TimingHandler(stmt, definition.stats));
+    }
+
+    public static String getSql(String name) {
+        Definition definition = definitions.get(name);
+        return definition != null ? definition.sql : null;
+    }
+
+    /**
+     * Execution statistics per statement name, sorted by name. Statements never executed are left out.
+     */
+    public static Map<String, Stats> getStats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        for (Definition definition : definitions.values()) {
+            if (definition.stats.executions.sum() > 0) {
+                stats.put(definition.name, definition.stats);
+            }
+        }
+        return stats;
+    }
+
+    public static void logStats() {
+        for (Map.Entry<String, Stats> entry : getStats().entrySet()) {
+            logger.info("{}: {}", entry.getKey(), entry.getValue());
+        }
+    }
+
+    private static final class Definition {
+        private final String name;
+        private final String sql;
+        private final int fetchSize;
+        private final int queryTimeoutSeconds;
+        private final boolean returnGeneratedKeys;
+        private final Stats stats = new Stats();
+
+        Definition(String name, String sql, int fetchSize, int queryTimeoutSeconds, boolean returnGeneratedKeys) {
+            this.name = name;
+            this.sql = sql;
+            this.fetchSize = fetchSize;
+            this.queryTimeoutSeconds = queryTimeoutSeconds;
+            this.returnGeneratedKeys = returnGeneratedKeys;
+        }
+    }
+
+    /**
+     * Records the duration of every execute* call; everything else goes straight to the driver's statement.
+     */
+    private static final class TimingHandler implements InvocationHandler {
+        private final PreparedStatement target;
+        private final Stats stats;
+
+        TimingHandler(PreparedStatement target, Stats stats) {
+            this.target = target;
+            this.stats = stats;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return target.toString();
+                default:
+                    break;
+            }
+
+            boolean execution = method.getName().startsWith("execute");
+            long start = execution ? System.nanoTime() : 0;
+            boolean failed = false;
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                failed = true;
+                throw e.getCause();
+            } finally {
+                if (execution) {
+                    stats.record(System.nanoTime() - start, failed);
+                }
+            }
+        }
+    }
+
+    public static final class Stats {
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        void record(long nanos, boolean failed) {
+            executions.increment();
+            if (failed) {
+                failures.increment();
+            }
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        public long getExecutions() {
+            return executions.sum();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        public double getAverageMillis() {
+            long count = executions.sum();
+            return count == 0 ? 0 : totalNanos.sum() / (double) count / TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public double getMaxMillis() {
+            return maxNanos.get() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("executions=%d, failures=%d, avg=%.2fms, max=%.2fms",
+                    getExecutions(), getFailures(), getAverageMillis(), getMaxMillis());
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package repository;
+
+/**
+ * Outcome of a transactional booking write in ReservationRepository.
+ */
+public enum BookingStatus {
+    BOOKED,
+    CONFLICT,
+    ROOM_NOT_FOUND,
+    NOT_FOUND,
+    ERROR
+}
@@ -2,6 +2,7 @@ package repository;
 
 import model.Chain;
 import org.example.tema2ps.DBConnection;
+import org.example.tema2ps.StatementRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,59 +14,90 @@ import java.util.Optional;
 public class ChainRepository {
     private static final Logger logger = LoggerFactory.getLogger(ChainRepository.class);
 
+    private static final String FIND_ALL = StatementRegistry.define("chain.findAll",
+            "SELECT * FROM lant ORDER BY nume");
+
+    private static final String FIND_BY_ID = StatementRegistry.define("chain.findById",
+            "SELECT * FROM lant WHERE id = ?");
+
+    private static final String SAVE = StatementRegistry.defineInsert("chain.save",
+            "INSERT INTO lant (nume) VALUES (?)");
+
+    private static final String UPDATE = StatementRegistry.define("chain.update",
+            "UPDATE lant SET nume = ? WHERE id = ?");
+
+    private static final String DELETE = StatementRegistry.define("chain.delete",
+            "DELETE FROM lant WHERE id = ?");
+
+    private final ReferenceDataCache cache;
+
+    public ChainRepository(ReferenceDataCache cache) {
+        this.cache = cache;
+    }
+
     public List<Chain> findAll() {
+        List<Chain> cached = cache.chainLists.get(ReferenceDataCache.ALL, this::loadAll);
+        return cached != null ? ReferenceDataCache.copyChains(cached) : new ArrayList<>();
+    }
+
+    private List<Chain> loadAll() {
         List<Chain> chains = new ArrayList<>();
-        String sql = "SELECT * FROM lant ORDER BY nume";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_ALL);
              ResultSet rs = stmt.executeQuery()) {
 
+            RowMapper<Chain> mapper = new ChainRowMapper(ResultSetColumns.of(rs));
             while (rs.next()) {
-                Chain chain = mapResultSetToChain(rs);
+                Chain chain = mapper.mapRow(rs);
                 chains.add(chain);
             }
         } catch (SQLException e) {
             logger.error("Error fetching all hotel chains", e);
+            return null;
         }
 
         return chains;
     }
 
     public Optional<Chain> findById(Long id) {
-        String sql = "SELECT * FROM lant WHERE id = ?";
+        Chain cached = cache.chainsById.get(id, () -> loadById(id));
+        return cached != null ? Optional.of(ReferenceDataCache.copyOf(cached)) : Optional.empty();
+    }
 
+    private Chain loadById(Long id) {
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_ID)) {
 
             stmt.setLong(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Chain> mapper = new ChainRowMapper(ResultSetColumns.of(rs));
                 if (rs.next()) {
-                    return Optional.of(mapResultSetToChain(rs));
+                    return mapper.mapRow(rs);
                 }
             }
         } catch (SQLException e) {
             logger.error("Error fetching hotel chain with id: " + id, e);
         }
 
-        return Optional.empty();
+        return null;
     }
 
     public Long save(Chain chain) {
         // Modified to work with databases that don't support RETURNING
-        String sql = "INSERT INTO lant (nume) VALUES (?)";
-        String[] generatedColumns = {"id"};
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, generatedColumns)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, SAVE)) {
 
             stmt.setString(1, chain.getName());
             stmt.executeUpdate();
 
             try (ResultSet rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) {
-                    return rs.getLong(1);
+                    long id = rs.getLong(1);
+                    cache.chainLists.invalidateAll();
+                    return id;
                 }
             }
         } catch (SQLException e) {
@@ -76,15 +108,16 @@ public class ChainRepository {
     }
 
     public boolean update(Chain chain) {
-        String sql = "UPDATE lant SET nume = ? WHERE id = ?";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, UPDATE)) {
 
             stmt.setString(1, chain.getName());
             stmt.setLong(2, chain.getId());
 
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                cache.invalidateChain(chain.getId());
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             logger.error("Error updating hotel chain with id: " + chain.getId(), e);
@@ -93,25 +126,19 @@ public class ChainRepository {
     }
 
     public boolean delete(Long id) {
-        String sql = "DELETE FROM lant WHERE id = ?";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, DELETE)) {
 
             stmt.setLong(1, id);
 
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                cache.invalidateChain(id);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             logger.error("Error deleting hotel chain with id: " + id, e);
             return false;
         }
     }
-
-    private Chain mapResultSetToChain(ResultSet rs) throws SQLException {
-        Chain chain = new Chain();
-        chain.setId(rs.getLong("id"));
-        chain.setName(rs.getString("nume"));
-        return chain;
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package repository;
+
+import model.Chain;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps lant columns, either plain (id, nume) or aliased in joined queries (chain_id, chain_name).
+ */
+final class ChainRowMapper implements RowMapper<Chain> {
+    private final int id;
+    private final int name;
+
+    ChainRowMapper(ResultSetColumns columns) {
+        this(columns, "id", "nume");
+    }
+
+    ChainRowMapper(ResultSetColumns columns, String idLabel, String nameLabel) {
+        this.id = columns.indexOf(idLabel);
+        this.name = columns.indexOf(nameLabel);
+    }
+
+    /**
+     * Returns null when the row carries no chain.
+     */
+    @Override
+    public Chain mapRow(ResultSet rs) throws SQLException {
+        Long chainId = ResultSetColumns.getLong(rs, id);
+        if (chainId == null) {
+            return null;
+        }
+
+        Chain chain = new Chain();
+        chain.setId(chainId);
+        chain.setName(ResultSetColumns.getString(rs, name));
+        return chain;
+    }
+}
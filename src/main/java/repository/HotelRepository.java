@@ -1,9 +1,9 @@
 package repository;
 
-import model.Chain;
 import model.Hotel;
-import model.Location;
+import model.HotelSummary;
 import org.example.tema2ps.DBConnection;
+import org.example.tema2ps.StatementRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,159 +14,146 @@ import java.util.Optional;
 
 public class HotelRepository {
     private static final Logger logger = LoggerFactory.getLogger(HotelRepository.class);
-    private final LocationRepository locationRepository;
-    private final ChainRepository chainRepository;
+    // Hotel columns plus its location and chain
+    private static final String HOTEL_SELECT = "SELECT h.*, l.id as loc_id, l.tara, l.oras, l.strada, l.numar, " +
+            "c.id as chain_id, c.nume as chain_name " +
+            "FROM hotel h " +
+            "LEFT JOIN locatie l ON h.id_locatie = l.id " +
+            "LEFT JOIN lant c ON h.id_lant = c.id ";
 
-    public HotelRepository() {
-        this.locationRepository = new LocationRepository();
-        this.chainRepository = new ChainRepository();
+    private static final String FIND_ALL = StatementRegistry.define("hotel.findAll",
+            HOTEL_SELECT + "ORDER BY h.nume");
+
+    private static final String FIND_BY_CHAIN_ID = StatementRegistry.define("hotel.findByChainId",
+            HOTEL_SELECT + "WHERE h.id_lant = ? ORDER BY h.nume");
+
+    private static final String FIND_ALL_SUMMARIES = StatementRegistry.define("hotel.findAllSummaries",
+            "SELECT h.id, h.nume, l.oras FROM hotel h LEFT JOIN locatie l ON h.id_locatie = l.id ORDER BY h.nume");
+
+    private static final String FIND_BY_ID = StatementRegistry.define("hotel.findById",
+            HOTEL_SELECT + "WHERE h.id = ?");
+
+    private static final String SAVE = StatementRegistry.defineInsert("hotel.save",
+            "INSERT INTO hotel (nume, id_locatie, telefon, email, facilitati, id_lant) " +
+            "VALUES (?, ?, ?, ?, ?, ?)");
+
+    private static final String UPDATE = StatementRegistry.define("hotel.update",
+            "UPDATE hotel SET nume = ?, id_locatie = ?, telefon = ?, " +
+            "email = ?, facilitati = ?, id_lant = ? WHERE id = ?");
+
+    private static final String DELETE = StatementRegistry.define("hotel.delete",
+            "DELETE FROM hotel WHERE id = ?");
+
+    private final ReferenceDataCache cache;
+
+    public HotelRepository(ReferenceDataCache cache) {
+        this.cache = cache;
     }
 
     public List<Hotel> findAll() {
+        List<Hotel> cached = cache.hotelLists.get(ReferenceDataCache.ALL, this::loadAll);
+        return cached != null ? attach(cached) : new ArrayList<>();
+    }
+
+    private List<Hotel> loadAll() {
         List<Hotel> hotels = new ArrayList<>();
-        String sql = "SELECT h.*, l.id as loc_id, l.tara, l.oras, l.strada, l.numar, " +
-                "c.id as chain_id, c.nume as chain_name " +
-                "FROM hotel h " +
-                "LEFT JOIN locatie l ON h.id_locatie = l.id " +
-                "LEFT JOIN lant c ON h.id_lant = c.id " +
-                "ORDER BY h.nume";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_ALL);
              ResultSet rs = stmt.executeQuery()) {
 
+            RowMapper<Hotel> mapper = new HotelRowMapper(ResultSetColumns.of(rs));
             while (rs.next()) {
-                Hotel hotel = mapResultSetToHotel(rs);
-
-                // Set Location directly from join results
-                if (hotel.getLocationId() != null) {
-                    Location location = new Location();
-                    location.setId(rs.getLong("loc_id"));
-                    location.setCountry(rs.getString("tara"));
-                    location.setCity(rs.getString("oras"));
-                    location.setStreet(rs.getString("strada"));
-                    location.setNumber(rs.getString("numar"));
-                    hotel.setLocation(location);
-                }
-
-                // Set Chain directly from join results
-                if (hotel.getChainId() != null) {
-                    Chain chain = new Chain();
-                    chain.setId(rs.getLong("chain_id"));
-                    chain.setName(rs.getString("chain_name"));
-                    hotel.setChain(chain);
-                }
-
-                hotels.add(hotel);
+                hotels.add(mapper.mapRow(rs));
             }
         } catch (SQLException e) {
             logger.error("Error fetching all hotels", e);
+            return null;
         }
 
         return hotels;
     }
 
+    /**
+     * Id, name and city of every hotel, for selectors. Summaries are immutable, so the cached list is shared.
+     */
+    public List<HotelSummary> findAllSummaries() {
+        List<HotelSummary> cached = cache.hotelSummaries.get(ReferenceDataCache.ALL, this::loadAllSummaries);
+        return cached != null ? new ArrayList<>(cached) : new ArrayList<>();
+    }
+
+    private List<HotelSummary> loadAllSummaries() {
+        List<HotelSummary> summaries = new ArrayList<>();
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_ALL_SUMMARIES);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                summaries.add(new HotelSummary(rs.getLong(1), rs.getString(2), rs.getString(3)));
+            }
+        } catch (SQLException e) {
+            logger.error("Error fetching hotel summaries", e);
+            return null;
+        }
+
+        return summaries;
+    }
+
     public List<Hotel> findByChainId(Long chainId) {
+        List<Hotel> cached = cache.hotelLists.get(ReferenceDataCache.chainKey(chainId), () -> loadByChainId(chainId));
+        return cached != null ? attach(cached) : new ArrayList<>();
+    }
+
+    private List<Hotel> loadByChainId(Long chainId) {
         List<Hotel> hotels = new ArrayList<>();
-        String sql = "SELECT h.*, l.id as loc_id, l.tara, l.oras, l.strada, l.numar, " +
-                "c.id as chain_id, c.nume as chain_name " +
-                "FROM hotel h " +
-                "LEFT JOIN locatie l ON h.id_locatie = l.id " +
-                "LEFT JOIN lant c ON h.id_lant = c.id " +
-                "WHERE h.id_lant = ? " +
-                "ORDER BY h.nume";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_CHAIN_ID)) {
 
             stmt.setLong(1, chainId);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Hotel> mapper = new HotelRowMapper(ResultSetColumns.of(rs));
                 while (rs.next()) {
-                    Hotel hotel = mapResultSetToHotel(rs);
-
-                    // Set Location directly from join results
-                    if (hotel.getLocationId() != null) {
-                        Location location = new Location();
-                        location.setId(rs.getLong("loc_id"));
-                        location.setCountry(rs.getString("tara"));
-                        location.setCity(rs.getString("oras"));
-                        location.setStreet(rs.getString("strada"));
-                        location.setNumber(rs.getString("numar"));
-                        hotel.setLocation(location);
-                    }
-
-                    // Set Chain directly from join results
-                    if (hotel.getChainId() != null) {
-                        Chain chain = new Chain();
-                        chain.setId(rs.getLong("chain_id"));
-                        chain.setName(rs.getString("chain_name"));
-                        hotel.setChain(chain);
-                    }
-
-                    hotels.add(hotel);
+                    hotels.add(mapper.mapRow(rs));
                 }
             }
         } catch (SQLException e) {
             logger.error("Error fetching hotels by chain id: " + chainId, e);
+            return null;
         }
 
         return hotels;
     }
 
     public Optional<Hotel> findById(Long id) {
-        String sql = "SELECT h.*, l.id as loc_id, l.tara, l.oras, l.strada, l.numar, " +
-                "c.id as chain_id, c.nume as chain_name " +
-                "FROM hotel h " +
-                "LEFT JOIN locatie l ON h.id_locatie = l.id " +
-                "LEFT JOIN lant c ON h.id_lant = c.id " +
-                "WHERE h.id = ?";
+        Hotel cached = cache.hotelsById.get(id, () -> loadById(id));
+        return cached != null ? Optional.of(attach(cached)) : Optional.empty();
+    }
 
+    private Hotel loadById(Long id) {
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_ID)) {
 
             stmt.setLong(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Hotel> mapper = new HotelRowMapper(ResultSetColumns.of(rs));
                 if (rs.next()) {
-                    Hotel hotel = mapResultSetToHotel(rs);
-
-                    // Set Location directly from join results
-                    if (hotel.getLocationId() != null) {
-                        Location location = new Location();
-                        location.setId(rs.getLong("loc_id"));
-                        location.setCountry(rs.getString("tara"));
-                        location.setCity(rs.getString("oras"));
-                        location.setStreet(rs.getString("strada"));
-                        location.setNumber(rs.getString("numar"));
-                        hotel.setLocation(location);
-                    }
-
-                    // Set Chain directly from join results
-                    if (hotel.getChainId() != null) {
-                        Chain chain = new Chain();
-                        chain.setId(rs.getLong("chain_id"));
-                        chain.setName(rs.getString("chain_name"));
-                        hotel.setChain(chain);
-                    }
-
-                    return Optional.of(hotel);
+                    return mapper.mapRow(rs);
                 }
             }
         } catch (SQLException e) {
             logger.error("Error fetching hotel with id: " + id, e);
         }
 
-        return Optional.empty();
+        return null;
     }
 
     public Long save(Hotel hotel) {
-        String sql = "INSERT INTO hotel (nume, id_locatie, telefon, email, facilitati, id_lant) " +
-                "VALUES (?, ?, ?, ?, ?, ?)";
-        String[] generatedColumns = {"id"};
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, SAVE)) {
 
             stmt.setString(1, hotel.getName());
 
@@ -194,7 +181,9 @@ public class HotelRepository {
 
             try (ResultSet rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) {
-                    return rs.getLong(1);
+                    long id = rs.getLong(1);
+                    cache.invalidateHotels();
+                    return id;
                 }
             }
         } catch (SQLException e) {
@@ -205,11 +194,8 @@ public class HotelRepository {
     }
 
     public boolean update(Hotel hotel) {
-        String sql = "UPDATE hotel SET nume = ?, id_locatie = ?, telefon = ?, " +
-                "email = ?, facilitati = ?, id_lant = ? WHERE id = ?";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, UPDATE)) {
 
             stmt.setString(1, hotel.getName());
 
@@ -232,6 +218,9 @@ public class HotelRepository {
             stmt.setLong(7, hotel.getId());
 
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                cache.invalidateHotels();
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             logger.error("Error updating hotel with id: " + hotel.getId(), e);
@@ -240,14 +229,15 @@ public class HotelRepository {
     }
 
     public boolean delete(Long id) {
-        String sql = "DELETE FROM hotel WHERE id = ?";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, DELETE)) {
 
             stmt.setLong(1, id);
 
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                cache.invalidateHotels();
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             logger.error("Error deleting hotel with id: " + id, e);
@@ -255,25 +245,25 @@ public class HotelRepository {
         }
     }
 
-    private Hotel mapResultSetToHotel(ResultSet rs) throws SQLException {
-        Hotel hotel = new Hotel();
-        hotel.setId(rs.getLong("id"));
-        hotel.setName(rs.getString("nume"));
-
-        Long locationId = rs.getLong("id_locatie");
-        if (!rs.wasNull()) {
-            hotel.setLocationId(locationId);
+    /**
+     * Hands out the session instance of a cached hotel when an IdentityMap is bound (its refresh from the cache
+     * is queued on the map), otherwise a fresh copy.
+     */
+    private Hotel attach(Hotel cached) {
+        IdentityMap identityMap = IdentityMap.current();
+        if (identityMap == null) {
+            return ReferenceDataCache.copyOf(cached);
         }
 
-        hotel.setPhone(rs.getString("telefon"));
-        hotel.setEmail(rs.getString("email"));
-        hotel.setAmenities(rs.getString("facilitati"));
+        return identityMap.resolve(Hotel.class, cached.getId(), ReferenceDataCache.copyOf(cached),
+                ReferenceDataCache::copyInto);
+    }
 
-        Long chainId = rs.getLong("id_lant");
-        if (!rs.wasNull()) {
-            hotel.setChainId(chainId);
+    private List<Hotel> attach(List<Hotel> cached) {
+        List<Hotel> hotels = new ArrayList<>(cached.size());
+        for (Hotel hotel : cached) {
+            hotels.add(attach(hotel));
         }
-
-        return hotel;
+        return hotels;
     }
-}
\ No newline at end of file
+}
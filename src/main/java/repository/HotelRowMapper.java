@@ -0,0 +1,62 @@
+package repository;
+
+import model.Chain;
+import model.Hotel;
+import model.Location;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps hotel columns. When the query joins the location (loc_id, tara, oras, strada, numar)
+ * and chain (chain_id, chain_name) they are attached as well.
+ */
+final class HotelRowMapper implements RowMapper<Hotel> {
+    private final int id;
+    private final int name;
+    private final int locationId;
+    private final int phone;
+    private final int email;
+    private final int amenities;
+    private final int chainId;
+    private final LocationRowMapper locationMapper;
+    private final ChainRowMapper chainMapper;
+
+    HotelRowMapper(ResultSetColumns columns) {
+        this.id = columns.indexOf("id");
+        this.name = columns.indexOf("nume");
+        this.locationId = columns.indexOf("id_locatie");
+        this.phone = columns.indexOf("telefon");
+        this.email = columns.indexOf("email");
+        this.amenities = columns.indexOf("facilitati");
+        this.chainId = columns.indexOf("id_lant");
+        this.locationMapper = columns.indexOf("loc_id") != ResultSetColumns.MISSING
+                ? new LocationRowMapper(columns, "loc_id") : null;
+        this.chainMapper = columns.indexOf("chain_id") != ResultSetColumns.MISSING
+                ? new ChainRowMapper(columns, "chain_id", "chain_name") : null;
+    }
+
+    @Override
+    public Hotel mapRow(ResultSet rs) throws SQLException {
+        Hotel hotel = new Hotel();
+        hotel.setId(ResultSetColumns.getLong(rs, id));
+        hotel.setName(ResultSetColumns.getString(rs, name));
+        hotel.setLocationId(ResultSetColumns.getLong(rs, locationId));
+        hotel.setPhone(ResultSetColumns.getString(rs, phone));
+        hotel.setEmail(ResultSetColumns.getString(rs, email));
+        hotel.setAmenities(ResultSetColumns.getString(rs, amenities));
+        hotel.setChainId(ResultSetColumns.getLong(rs, chainId));
+
+        if (locationMapper != null && hotel.getLocationId() != null) {
+            Location location = locationMapper.mapRow(rs);
+            hotel.setLocation(location);
+        }
+
+        if (chainMapper != null && hotel.getChainId() != null) {
+            Chain chain = chainMapper.mapRow(rs);
+            hotel.setChain(chain);
+        }
+
+        return hotel;
+    }
+}
@@ -0,0 +1,166 @@
+package repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Keeps one instance per (entity type, id) for the duration of a view session or unit of work.
+ * A map is bound to the calling thread with bind(); while it is bound, the row mappers and HotelRepository
+ * resolve hotels and rooms through it, so rows that reference the same hotel or room share one object
+ * across queries.
+ * Queries usually run on worker threads while the view shows the same instances, so a query never writes
+ * to an instance that is already registered: it queues a refresh instead, and the view applies the queued
+ * refreshes on its own thread with applyRefreshes() before it uses the result.
+ */
+public final class IdentityMap {
+    private static final ThreadLocal<IdentityMap> current = new ThreadLocal<>();
+
+    private final Map<Class<?>, Map<Long, Object>> entities = new HashMap<>();
+    // The latest refresh read for each registered instance, not applied yet
+    private final Map<Object, Runnable> pendingRefreshes = new IdentityHashMap<>();
+
+    /**
+     * Returns the map bound to the calling thread, or null when none is bound.
+     */
+    static IdentityMap current() {
+        return current.get();
+    }
+
+    /**
+     * Binds this map to the calling thread until the returned scope is closed,
+     * after which the previously bound map (if any) is restored.
+     */
+    public Scope bind() {
+        IdentityMap previous = current.get();
+        current.set(this);
+        return () -> {
+            if (previous != null) {
+                current.set(previous);
+            } else {
+                current.remove();
+            }
+        };
+    }
+
+    /**
+     * Wraps a task so that it runs with the map bound to the calling thread (if any) bound,
+     * whichever thread ends up running it.
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        IdentityMap map = current.get();
+        if (map == null) {
+            return task;
+        }
+        return () -> map.call(task);
+    }
+
+    /**
+     * Runs a task with this map bound to the calling thread. Async service calls made inside it capture
+     * the map and bind it on the worker that runs them.
+     */
+    public <T> T call(Supplier<T> task) {
+        Scope scope = bind();
+        try {
+            return task.get();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Wraps a callback so that the refreshes queued by the call it receives the result of are applied first.
+     * The callback must run on the thread that reads the instances.
+     */
+    public <T> Consumer<T> refreshing(Consumer<T> onSuccess) {
+        return result -> {
+            applyRefreshes();
+            onSuccess.accept(result);
+        };
+    }
+
+    /**
+     * Unbinds the calling thread's map (if any) until the returned scope is closed.
+     * Used by the streaming finders, whose rows must not accumulate in a session map.
+     */
+    static Scope suspend() {
+        IdentityMap previous = current.get();
+        current.remove();
+        return () -> {
+            if (previous != null) {
+                current.set(previous);
+            }
+        };
+    }
+
+    public synchronized <T> T find(Class<T> type, Long id) {
+        Map<Long, Object> byId = entities.get(type);
+        return byId != null ? type.cast(byId.get(id)) : null;
+    }
+
+    /**
+     * Registers the entity unless another instance with the same id is already known; returns the one to use.
+     * The entity must be fully populated, as other threads may use it as soon as it is registered.
+     */
+    public synchronized <T> T register(Class<T> type, Long id, T entity) {
+        Object existing = entities.computeIfAbsent(type, key -> new HashMap<>()).putIfAbsent(id, entity);
+        return existing != null ? type.cast(existing) : entity;
+    }
+
+    /**
+     * Returns the session instance for a freshly mapped entity: the entity itself if it is new to the session,
+     * otherwise the registered instance, whose refresh from the mapped values is queued.
+     */
+    <T> T resolve(Class<T> type, Long id, T mapped, BiConsumer<T, T> copy) {
+        T registered = register(type, id, mapped);
+        if (registered != mapped) {
+            refreshLater(registered, () -> copy.accept(mapped, registered));
+        }
+        return registered;
+    }
+
+    /**
+     * Queues a refresh of a registered instance; a later refresh of the same instance replaces it.
+     */
+    synchronized void refreshLater(Object entity, Runnable refresh) {
+        pendingRefreshes.put(entity, refresh);
+    }
+
+    /**
+     * Applies the queued refreshes. Must run on the thread that reads the instances, i.e. the JavaFX thread.
+     */
+    public void applyRefreshes() {
+        List<Runnable> refreshes;
+        synchronized (this) {
+            refreshes = new ArrayList<>(pendingRefreshes.values());
+            pendingRefreshes.clear();
+        }
+        for (Runnable refresh : refreshes) {
+            refresh.run();
+        }
+    }
+
+    public synchronized void clear() {
+        entities.clear();
+        pendingRefreshes.clear();
+    }
+
+    public synchronized int size() {
+        int size = 0;
+        for (Map<Long, Object> byId : entities.values()) {
+            size += byId.size();
+        }
+        return size;
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
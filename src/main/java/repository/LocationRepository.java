@@ -2,6 +2,7 @@ package repository;
 
 import model.Location;
 import org.example.tema2ps.DBConnection;
+import org.example.tema2ps.StatementRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -13,50 +14,79 @@ import java.util.Optional;
 public class LocationRepository {
     private static final Logger logger = LoggerFactory.getLogger(LocationRepository.class);
 
+    private static final String FIND_ALL = StatementRegistry.define("location.findAll",
+            "SELECT * FROM locatie ORDER BY tara, oras");
+
+    private static final String FIND_BY_ID = StatementRegistry.define("location.findById",
+            "SELECT * FROM locatie WHERE id = ?");
+
+    private static final String SAVE = StatementRegistry.define("location.save",
+            "INSERT INTO locatie (tara, oras, strada, numar) VALUES (?, ?, ?, ?) RETURNING id");
+
+    private static final String UPDATE = StatementRegistry.define("location.update",
+            "UPDATE locatie SET tara = ?, oras = ?, strada = ?, numar = ? WHERE id = ?");
+
+    private static final String DELETE = StatementRegistry.define("location.delete",
+            "DELETE FROM locatie WHERE id = ?");
+
+    private final ReferenceDataCache cache;
+
+    public LocationRepository(ReferenceDataCache cache) {
+        this.cache = cache;
+    }
+
     public List<Location> findAll() {
+        List<Location> cached = cache.locationLists.get(ReferenceDataCache.ALL, this::loadAll);
+        return cached != null ? ReferenceDataCache.copyLocations(cached) : new ArrayList<>();
+    }
+
+    private List<Location> loadAll() {
         List<Location> locations = new ArrayList<>();
-        String sql = "SELECT * FROM locatie ORDER BY tara, oras";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_ALL);
              ResultSet rs = stmt.executeQuery()) {
 
+            RowMapper<Location> mapper = new LocationRowMapper(ResultSetColumns.of(rs));
             while (rs.next()) {
-                Location location = mapResultSetToLocation(rs);
+                Location location = mapper.mapRow(rs);
                 locations.add(location);
             }
         } catch (SQLException e) {
             logger.error("Error fetching all locations", e);
+            return null;
         }
 
         return locations;
     }
 
     public Optional<Location> findById(Long id) {
-        String sql = "SELECT * FROM locatie WHERE id = ?";
+        Location cached = cache.locationsById.get(id, () -> loadById(id));
+        return cached != null ? Optional.of(ReferenceDataCache.copyOf(cached)) : Optional.empty();
+    }
 
+    private Location loadById(Long id) {
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_ID)) {
 
             stmt.setLong(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Location> mapper = new LocationRowMapper(ResultSetColumns.of(rs));
                 if (rs.next()) {
-                    return Optional.of(mapResultSetToLocation(rs));
+                    return mapper.mapRow(rs);
                 }
             }
         } catch (SQLException e) {
             logger.error("Error fetching location with id: " + id, e);
         }
 
-        return Optional.empty();
+        return null;
     }
 
     public Long save(Location location) {
-        String sql = "INSERT INTO locatie (tara, oras, strada, numar) VALUES (?, ?, ?, ?) RETURNING id";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, SAVE)) {
 
             stmt.setString(1, location.getCountry());
             stmt.setString(2, location.getCity());
@@ -65,7 +95,9 @@ public class LocationRepository {
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
-                    return rs.getLong("id");
+                    long id = rs.getLong("id");
+                    cache.locationLists.invalidateAll();
+                    return id;
                 }
             }
         } catch (SQLException e) {
@@ -76,10 +108,8 @@ public class LocationRepository {
     }
 
     public boolean update(Location location) {
-        String sql = "UPDATE locatie SET tara = ?, oras = ?, strada = ?, numar = ? WHERE id = ?";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, UPDATE)) {
 
             stmt.setString(1, location.getCountry());
             stmt.setString(2, location.getCity());
@@ -88,6 +118,9 @@ public class LocationRepository {
             stmt.setLong(5, location.getId());
 
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                cache.invalidateLocation(location.getId());
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             logger.error("Error updating location with id: " + location.getId(), e);
@@ -96,28 +129,19 @@ public class LocationRepository {
     }
 
     public boolean delete(Long id) {
-        String sql = "DELETE FROM locatie WHERE id = ?";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, DELETE)) {
 
             stmt.setLong(1, id);
 
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                cache.invalidateLocation(id);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             logger.error("Error deleting location with id: " + id, e);
             return false;
         }
     }
-
-    private Location mapResultSetToLocation(ResultSet rs) throws SQLException {
-        Location location = new Location();
-        location.setId(rs.getLong("id"));
-        location.setCountry(rs.getString("tara"));
-        location.setCity(rs.getString("oras"));
-        location.setStreet(rs.getString("strada"));
-        location.setNumber(rs.getString("numar"));
-        return location;
-    }
-}
\ No newline at end of file
+}
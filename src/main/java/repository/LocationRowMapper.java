@@ -0,0 +1,48 @@
+package repository;
+
+import model.Location;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps locatie columns. The id column label is configurable because joined queries alias it (loc_id).
+ */
+final class LocationRowMapper implements RowMapper<Location> {
+    private final int id;
+    private final int country;
+    private final int city;
+    private final int street;
+    private final int number;
+
+    LocationRowMapper(ResultSetColumns columns) {
+        this(columns, "id");
+    }
+
+    LocationRowMapper(ResultSetColumns columns, String idLabel) {
+        this.id = columns.indexOf(idLabel);
+        this.country = columns.indexOf("tara");
+        this.city = columns.indexOf("oras");
+        this.street = columns.indexOf("strada");
+        this.number = columns.indexOf("numar");
+    }
+
+    /**
+     * Returns null when the row carries no location (e.g. an outer join without a match).
+     */
+    @Override
+    public Location mapRow(ResultSet rs) throws SQLException {
+        Long locationId = ResultSetColumns.getLong(rs, id);
+        if (locationId == null) {
+            return null;
+        }
+
+        Location location = new Location();
+        location.setId(locationId);
+        location.setCountry(ResultSetColumns.getString(rs, country));
+        location.setCity(ResultSetColumns.getString(rs, city));
+        location.setStreet(ResultSetColumns.getString(rs, street));
+        location.setNumber(ResultSetColumns.getString(rs, number));
+        return location;
+    }
+}
@@ -0,0 +1,133 @@
+package repository;
+
+import model.Chain;
+import model.Hotel;
+import model.HotelSummary;
+import model.Location;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import util.TtlCache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-through caches for hotels, chains and locations, shared by the repositories of one application context.
+ * The repositories invalidate them from their save/update/delete methods; the TTL only bounds
+ * how long changes made by other clients stay invisible.
+ * Cached instances never leave this class: readers get copies (or their IdentityMap instance, for hotels),
+ * so callers may attach rooms or hotels freely.
+ */
+public final class ReferenceDataCache {
+    private static final Logger logger = LoggerFactory.getLogger(ReferenceDataCache.class);
+    private static final long TTL_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    static final String ALL = "all";
+
+    final TtlCache<Long, Hotel> hotelsById = new TtlCache<>("hotel.byId", 2000, TTL_MILLIS);
+    // Keyed by ALL or by "chain:<id>"
+    final TtlCache<String, List<Hotel>> hotelLists = new TtlCache<>("hotel.lists", 200, TTL_MILLIS);
+    final TtlCache<String, List<HotelSummary>> hotelSummaries = new TtlCache<>("hotel.summaries", 1, TTL_MILLIS);
+    final TtlCache<Long, Chain> chainsById = new TtlCache<>("chain.byId", 500, TTL_MILLIS);
+    final TtlCache<String, List<Chain>> chainLists = new TtlCache<>("chain.lists", 1, TTL_MILLIS);
+    final TtlCache<Long, Location> locationsById = new TtlCache<>("location.byId", 2000, TTL_MILLIS);
+    final TtlCache<String, List<Location>> locationLists = new TtlCache<>("location.lists", 1, TTL_MILLIS);
+
+    static String chainKey(Long chainId) {
+        return "chain:" + chainId;
+    }
+
+    void invalidateHotels() {
+        hotelsById.invalidateAll();
+        hotelLists.invalidateAll();
+        hotelSummaries.invalidateAll();
+    }
+
+    // Hotels carry a copy of their chain and location, so those changes invalidate the hotel caches too
+    void invalidateChain(Long chainId) {
+        chainsById.invalidate(chainId);
+        chainLists.invalidateAll();
+        invalidateHotels();
+    }
+
+    void invalidateLocation(Long locationId) {
+        locationsById.invalidate(locationId);
+        locationLists.invalidateAll();
+        invalidateHotels();
+    }
+
+    public void invalidateAll() {
+        invalidateHotels();
+        chainsById.invalidateAll();
+        chainLists.invalidateAll();
+        locationsById.invalidateAll();
+        locationLists.invalidateAll();
+    }
+
+    public List<TtlCache.Stats> getStats() {
+        List<TtlCache.Stats> stats = new ArrayList<>();
+        stats.add(hotelsById.getStats());
+        stats.add(hotelLists.getStats());
+        stats.add(hotelSummaries.getStats());
+        stats.add(chainsById.getStats());
+        stats.add(chainLists.getStats());
+        stats.add(locationsById.getStats());
+        stats.add(locationLists.getStats());
+        return stats;
+    }
+
+    public void logStats() {
+        for (TtlCache.Stats stats : getStats()) {
+            logger.info("Cache {}", stats);
+        }
+    }
+
+    static Hotel copyOf(Hotel hotel) {
+        Hotel copy = new Hotel();
+        copyInto(hotel, copy);
+        return copy;
+    }
+
+    /**
+     * Copies the columns of a hotel, with copies of its location and chain, into another instance.
+     * Rooms are left alone.
+     */
+    static void copyInto(Hotel hotel, Hotel copy) {
+        copy.setId(hotel.getId());
+        copy.setName(hotel.getName());
+        copy.setLocationId(hotel.getLocationId());
+        copy.setPhone(hotel.getPhone());
+        copy.setEmail(hotel.getEmail());
+        copy.setAmenities(hotel.getAmenities());
+        copy.setChainId(hotel.getChainId());
+        copy.setLocation(hotel.getLocation() != null ? copyOf(hotel.getLocation()) : null);
+        copy.setChain(hotel.getChain() != null ? copyOf(hotel.getChain()) : null);
+    }
+
+    static Chain copyOf(Chain chain) {
+        return new Chain(chain.getId(), chain.getName(), chain.getDescription(),
+                chain.getHeadquarters(), chain.getWebsite(), chain.getLogo());
+    }
+
+    static Location copyOf(Location location) {
+        return new Location(location.getId(), location.getCountry(), location.getCity(),
+                location.getStreet(), location.getNumber(), location.getPostalCode());
+    }
+
+    static List<Chain> copyChains(List<Chain> chains) {
+        List<Chain> copies = new ArrayList<>(chains.size());
+        for (Chain chain : chains) {
+            copies.add(copyOf(chain));
+        }
+        return copies;
+    }
+
+    static List<Location> copyLocations(List<Location> locations) {
+        List<Location> copies = new ArrayList<>(locations.size());
+        for (Location location : locations) {
+            copies.add(copyOf(location));
+        }
+        return copies;
+    }
+}
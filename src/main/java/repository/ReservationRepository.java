@@ -1,41 +1,129 @@
 package repository;
 
+import model.Hotel;
 import model.Reservation;
+import model.ReservationChange;
 import model.Room;
-import model.Hotel;
 import org.example.tema2ps.DBConnection;
+import org.example.tema2ps.StatementRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.sql.*;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 public class ReservationRepository {
     private static final Logger logger = LoggerFactory.getLogger(ReservationRepository.class);
-    private final RoomRepository roomRepository;
+    // Reservation columns plus a summary of the booked room and its hotel, shared by all finders
+    private static final String RESERVATION_SELECT = "SELECT r.*, c.nr_camera, c.pret_per_noapte, c.tip_camera, c.capacitate, " +
+            "c.id_hotel, h.nume as hotel_name " +
+            "FROM rezervari r " +
+            "LEFT JOIN camera c ON r.id_camera = c.id " +
+            "LEFT JOIN hotel h ON c.id_hotel = h.id ";
+
+    private static final String FIND_ALL = StatementRegistry.define("reservation.findAll",
+            RESERVATION_SELECT + "ORDER BY r.start_date DESC");
+
+    private static final String FIND_BY_ROOM_ID = StatementRegistry.define("reservation.findByRoomId",
+            RESERVATION_SELECT + "WHERE r.id_camera = ? ORDER BY r.start_date DESC");
+
+    private static final String STREAM_BY_HOTEL_ID_AND_DATE = StatementRegistry.defineStreaming("reservation.streamByHotelIdAndDate",
+            RESERVATION_SELECT + "WHERE c.id_hotel = ? AND ? BETWEEN r.start_date AND r.end_date ORDER BY r.start_date");
+
+    // Reservations overlapping [start, end]
+    private static final String FIND_BY_HOTEL_ID_AND_PERIOD = StatementRegistry.define("reservation.findByHotelIdAndPeriod",
+            RESERVATION_SELECT + "WHERE c.id_hotel = ? AND r.start_date <= ? AND r.end_date >= ? ORDER BY r.start_date");
+
+    private static final String STREAM_BY_HOTEL_ID_AND_PERIOD = StatementRegistry.defineStreaming("reservation.streamByHotelIdAndPeriod",
+            StatementRegistry.getSql(FIND_BY_HOTEL_ID_AND_PERIOD));
+
+    private static final String FIND_BY_HOTEL_ID = StatementRegistry.define("reservation.findByHotelId",
+            RESERVATION_SELECT + "WHERE c.id_hotel = ? ORDER BY r.start_date DESC");
+
+    private static final String FIND_BY_CUSTOMER_NAME = StatementRegistry.define("reservation.findByCustomerName",
+            RESERVATION_SELECT + "WHERE r.customer_name LIKE ? ORDER BY r.start_date DESC");
+
+    private static final String FIND_BY_ID = StatementRegistry.define("reservation.findById",
+            RESERVATION_SELECT + "WHERE r.id = ?");
+
+    // Keyset pages in (start_date DESC, id DESC) order; the next page starts strictly after the last row seen
+    private static final String FIND_FIRST_PAGE = StatementRegistry.define("reservation.findFirstPage",
+            RESERVATION_SELECT + "ORDER BY r.start_date DESC, r.id DESC LIMIT ?");
+
+    private static final String FIND_PAGE_AFTER = StatementRegistry.define("reservation.findPageAfter",
+            RESERVATION_SELECT + "WHERE r.start_date < ? OR (r.start_date = ? AND r.id < ?) " +
+            "ORDER BY r.start_date DESC, r.id DESC LIMIT ?");
+
+    private static final String FIND_FIRST_PAGE_BY_HOTEL_ID = StatementRegistry.define("reservation.findFirstPageByHotelId",
+            RESERVATION_SELECT + "WHERE c.id_hotel = ? ORDER BY r.start_date DESC, r.id DESC LIMIT ?");
+
+    private static final String FIND_PAGE_AFTER_BY_HOTEL_ID = StatementRegistry.define("reservation.findPageAfterByHotelId",
+            RESERVATION_SELECT + "WHERE c.id_hotel = ? AND (r.start_date < ? OR (r.start_date = ? AND r.id < ?)) " +
+            "ORDER BY r.start_date DESC, r.id DESC LIMIT ?");
+
+    // Rows inserted or updated in [from, to), in the order they changed
+    private static final String STREAM_CHANGED_BETWEEN = StatementRegistry.defineStreaming("reservation.streamChangedBetween",
+            RESERVATION_SELECT + "WHERE r.updated_at >= ? AND r.updated_at < ? ORDER BY r.updated_at, r.id");
+
+    private static final String STREAM_DELETED_BETWEEN = StatementRegistry.defineStreaming("reservation.streamDeletedBetween",
+            "SELECT id, deleted_at FROM rezervari_sterse WHERE deleted_at >= ? AND deleted_at < ? ORDER BY deleted_at, id");
+
+    // Whether db/003_rezervari_modificari.sql has been applied to the current schema
+    private static final String FIND_CHANGE_TRACKING = StatementRegistry.define("reservation.findChangeTracking",
+            "SELECT (SELECT COUNT(*) FROM information_schema.COLUMNS " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'rezervari' AND COLUMN_NAME = 'updated_at') AS updated_at_columns, " +
+            "(SELECT COUNT(*) FROM information_schema.TABLES " +
+            "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'rezervari_sterse') AS tombstone_tables");
+
+    // The database clock, which stamps updated_at and deleted_at, minus a lag in seconds
+    private static final String FIND_CHANGE_CUTOFF = StatementRegistry.define("reservation.findChangeCutoff",
+            "SELECT CURRENT_TIMESTAMP(6) - INTERVAL ? SECOND");
+
+    // updated_at is stamped by the database clock, so every client agrees on the order of changes
+    private static final String SAVE = StatementRegistry.defineInsert("reservation.save",
+            "INSERT INTO rezervari (start_date, end_date, id_camera, customer_name, customer_email, customer_phone, total_price, payment_status, updated_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP(6))");
+
+    private static final String UPDATE = StatementRegistry.define("reservation.update",
+            "UPDATE rezervari SET start_date = ?, end_date = ?, id_camera = ?, " +
+            "customer_name = ?, customer_email = ?, customer_phone = ?, " +
+            "total_price = ?, payment_status = ?, updated_at = CURRENT_TIMESTAMP(6) WHERE id = ?");
+
+    private static final String DELETE = StatementRegistry.define("reservation.delete",
+            "DELETE FROM rezervari WHERE id = ?");
+
+    private static final String INSERT_TOMBSTONE = StatementRegistry.define("reservation.insertTombstone",
+            "INSERT INTO rezervari_sterse (id, deleted_at) VALUES (?, CURRENT_TIMESTAMP(6)) " +
+            "ON DUPLICATE KEY UPDATE deleted_at = VALUES(deleted_at)");
+
+    // Two windows overlap unless one ends before the other starts
+    private static final String LOCK_ROOM_AND_PROBE_OVERLAP = StatementRegistry.define("reservation.lockRoomAndProbeOverlap",
+            "SELECT c.id, (SELECT r.id FROM rezervari r " +
+            "WHERE r.id_camera = c.id AND r.start_date <= ? AND r.end_date >= ? AND r.id <> ? LIMIT 1) AS conflict_id " +
+            "FROM camera c WHERE c.id = ? FOR UPDATE");
 
-    public ReservationRepository() {
-        this.roomRepository = new RoomRepository();
+    private final RoomAvailabilityIndex availabilityIndex;
+
+    public ReservationRepository(RoomAvailabilityIndex availabilityIndex) {
+        this.availabilityIndex = availabilityIndex;
     }
 
     public List<Reservation> findAll() {
         List<Reservation> reservations = new ArrayList<>();
-        String sql = "SELECT r.*, c.nr_camera, c.pret_per_noapte, c.tip_camera, c.capacitate, " +
-                "c.id_hotel, h.nume as hotel_name " +
-                "FROM rezervari r " +
-                "LEFT JOIN camera c ON r.id_camera = c.id " +
-                "LEFT JOIN hotel h ON c.id_hotel = h.id " +
-                "ORDER BY r.start_date DESC";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_ALL);
              ResultSet rs = stmt.executeQuery()) {
 
+            RowMapper<Reservation> mapper = new ReservationRowMapper(ResultSetColumns.of(rs));
             while (rs.next()) {
-                Reservation reservation = mapResultSetToReservation(rs);
+                Reservation reservation = mapper.mapRow(rs);
                 reservations.add(reservation);
             }
 
@@ -49,21 +137,16 @@ public class ReservationRepository {
 
     public List<Reservation> findByRoomId(Long roomId) {
         List<Reservation> reservations = new ArrayList<>();
-        String sql = "SELECT r.*, c.nr_camera, c.pret_per_noapte, c.tip_camera, c.capacitate, " +
-                "c.id_hotel, h.nume as hotel_name " +
-                "FROM rezervari r " +
-                "LEFT JOIN camera c ON r.id_camera = c.id " +
-                "LEFT JOIN hotel h ON c.id_hotel = h.id " +
-                "WHERE r.id_camera = ? ORDER BY r.start_date DESC";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_ROOM_ID)) {
 
             stmt.setLong(1, roomId);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Reservation> mapper = new ReservationRowMapper(ResultSetColumns.of(rs));
                 while (rs.next()) {
-                    Reservation reservation = mapResultSetToReservation(rs);
+                    Reservation reservation = mapper.mapRow(rs);
                     reservations.add(reservation);
                 }
             }
@@ -76,56 +159,236 @@ public class ReservationRepository {
         return reservations;
     }
 
-    public List<Reservation> findByHotelIdAndDate(Long hotelId, LocalDateTime date) {
+    /**
+     * Reservations of the hotel that overlap the given day, oldest first. The instances are detached: they are not
+     * registered in any session map, so they can be cached and shared, and are handed out through attach().
+     * Returns null if the query failed, so the result is not mistaken for an empty day and cached.
+     */
+    public List<Reservation> findDetachedByHotelIdAndDay(Long hotelId, LocalDate day) {
         List<Reservation> reservations = new ArrayList<>();
-        String sql = "SELECT r.*, c.nr_camera, c.pret_per_noapte, c.tip_camera, c.capacitate, " +
-                "c.id_hotel, h.nume as hotel_name " +
-                "FROM rezervari r " +
-                "JOIN camera c ON r.id_camera = c.id " +
-                "JOIN hotel h ON c.id_hotel = h.id " +
-                "WHERE c.id_hotel = ? AND ? BETWEEN r.start_date AND r.end_date " +
-                "ORDER BY r.start_date";
 
+        IdentityMap.Scope unbound = IdentityMap.suspend();
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_HOTEL_ID_AND_PERIOD)) {
 
             stmt.setLong(1, hotelId);
-            stmt.setTimestamp(2, Timestamp.valueOf(date));
+            stmt.setTimestamp(2, Timestamp.valueOf(day.atTime(LocalTime.MAX)));
+            stmt.setTimestamp(3, Timestamp.valueOf(day.atStartOfDay()));
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Reservation> mapper = new ReservationRowMapper(ResultSetColumns.of(rs));
                 while (rs.next()) {
-                    Reservation reservation = mapResultSetToReservation(rs);
-                    reservations.add(reservation);
+                    reservations.add(mapper.mapRow(rs));
                 }
             }
 
-            logger.info("Au fost găsite {} rezervări pentru hotelul cu id-ul {} la data {}.",
-                    reservations.size(), hotelId, date);
+            logger.info("Au fost găsite {} rezervări pentru hotelul cu id-ul {} în ziua {}.",
+                    reservations.size(), hotelId, day);
         } catch (SQLException e) {
-            logger.error("Eroare la preluarea rezervărilor după id-ul hotelului și dată: " + hotelId, e);
+            logger.error("Eroare la preluarea rezervărilor după id-ul hotelului și zi: " + hotelId, e);
+            return null;
+        } finally {
+            unbound.close();
         }
 
         return reservations;
     }
 
+    /**
+     * Copies of detached reservations for the caller. Their rooms and hotels are resolved like those of a fresh
+     * query: taken from the bound IdentityMap when it holds them, otherwise copied from the summary.
+     */
+    public List<Reservation> attach(List<Reservation> detached) {
+        RoomSummaries summaries = new RoomSummaries();
+        List<Reservation> reservations = new ArrayList<>(detached.size());
+        try {
+            for (Reservation source : detached) {
+                Reservation reservation = new Reservation(source.getId(), source.getStartDate(), source.getEndDate(),
+                        source.getRoomId(), source.getCustomerName(), source.getCustomerEmail(), source.getCustomerPhone());
+                reservation.setTotalPrice(source.getTotalPrice());
+                reservation.setPaymentStatus(source.getPaymentStatus());
+                reservation.setCreatedAt(source.getCreatedAt());
+                reservation.setUpdatedAt(source.getUpdatedAt());
+                Room room = source.getRoom();
+                if (room != null) {
+                    reservation.setRoom(summaries.room(room.getId(), target -> copyRoomSummary(room, target, summaries)));
+                }
+                reservations.add(reservation);
+            }
+        } catch (SQLException e) {
+            // Not thrown: the fillers only copy fields
+            throw new IllegalStateException(e);
+        }
+        return reservations;
+    }
+
+    private static void copyRoomSummary(Room room, Room target, RoomSummaries summaries) throws SQLException {
+        target.setRoomNumber(room.getRoomNumber());
+        target.setPricePerNight(room.getPricePerNight());
+        target.setRoomType(room.getRoomType());
+        target.setCapacity(room.getCapacity());
+        target.setHotelId(room.getHotelId());
+        Hotel hotel = room.getHotel();
+        if (hotel != null) {
+            target.setHotel(summaries.hotel(hotel.getId(), copy -> copy.setName(hotel.getName())));
+        }
+    }
+
+    /**
+     * The hotel's reservations spanning the given moment, handed to the handler as they arrive from the cursor instead of collected.
+     * Returns false if the query failed; rows handled before the failure stay handled.
+     */
+    public boolean streamByHotelIdAndDate(Long hotelId, LocalDateTime date, RowHandler<Reservation> handler) throws IOException {
+        IdentityMap.Scope unbound = IdentityMap.suspend();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, STREAM_BY_HOTEL_ID_AND_DATE)) {
+
+            stmt.setLong(1, hotelId);
+            stmt.setTimestamp(2, Timestamp.valueOf(date));
+
+            long count = 0;
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Reservation> mapper = new ReservationRowMapper(ResultSetColumns.of(rs));
+                while (rs.next()) {
+                    handler.handle(mapper.mapRow(rs));
+                    count++;
+                }
+            }
+
+            logger.info("Au fost transmise {} rezervări pentru hotelul cu id-ul {} la data {}.", count, hotelId, date);
+            return true;
+        } catch (SQLException e) {
+            logger.error("Eroare la parcurgerea rezervărilor după id-ul hotelului și dată: " + hotelId, e);
+            return false;
+        } finally {
+            unbound.close();
+        }
+    }
+
+    /**
+     * Streams the hotel's reservations that overlap [start, end], oldest first.
+     */
+    public boolean streamByHotelIdAndPeriod(Long hotelId, LocalDateTime start, LocalDateTime end,
+                                            RowHandler<Reservation> handler) throws IOException {
+        IdentityMap.Scope unbound = IdentityMap.suspend();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, STREAM_BY_HOTEL_ID_AND_PERIOD)) {
+
+            stmt.setLong(1, hotelId);
+            stmt.setTimestamp(2, Timestamp.valueOf(end));
+            stmt.setTimestamp(3, Timestamp.valueOf(start));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Reservation> mapper = new ReservationRowMapper(ResultSetColumns.of(rs));
+                while (rs.next()) {
+                    handler.handle(mapper.mapRow(rs));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.error("Eroare la parcurgerea rezervărilor hotelului cu id-ul " + hotelId + " în perioada " +
+                    start + " - " + end, e);
+            return false;
+        } finally {
+            unbound.close();
+        }
+    }
+
+    /**
+     * Streams the reservations inserted or updated in [from, to), then those deleted in the same interval.
+     * Half-open intervals let consecutive exports share their bounds without losing or repeating a change.
+     */
+    public boolean streamChangesBetween(LocalDateTime from, LocalDateTime to, RowHandler<ReservationChange> handler)
+            throws IOException {
+        IdentityMap.Scope unbound = IdentityMap.suspend();
+        try (Connection conn = DBConnection.getConnection()) {
+
+            long upserts = 0;
+            try (PreparedStatement stmt = StatementRegistry.prepare(conn, STREAM_CHANGED_BETWEEN)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(from));
+                stmt.setTimestamp(2, Timestamp.valueOf(to));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    RowMapper<Reservation> mapper = new ReservationRowMapper(ResultSetColumns.of(rs));
+                    while (rs.next()) {
+                        handler.handle(ReservationChange.upsert(mapper.mapRow(rs)));
+                        upserts++;
+                    }
+                }
+            }
+
+            long deletes = 0;
+            try (PreparedStatement stmt = StatementRegistry.prepare(conn, STREAM_DELETED_BETWEEN)) {
+                stmt.setTimestamp(1, Timestamp.valueOf(from));
+                stmt.setTimestamp(2, Timestamp.valueOf(to));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        handler.handle(ReservationChange.delete(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime()));
+                        deletes++;
+                    }
+                }
+            }
+
+            logger.info("Au fost transmise {} rezervări modificate și {} șterse în intervalul {} - {}.",
+                    upserts, deletes, from, to);
+            return true;
+        } catch (SQLException e) {
+            logger.error("Eroare la parcurgerea modificărilor rezervărilor în intervalul " + from + " - " + to, e);
+            return false;
+        } finally {
+            unbound.close();
+        }
+    }
+
+    /**
+     * The upper bound of the next incremental export: the database time minus lagSeconds, so that transactions
+     * still in flight when the export starts are picked up by the next one. Returns null if the query failed.
+     */
+    public LocalDateTime findChangeCutoff(int lagSeconds) {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_CHANGE_CUTOFF)) {
+
+            stmt.setInt(1, lagSeconds);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    return rs.getTimestamp(1).toLocalDateTime();
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Eroare la citirea orei bazei de date", e);
+        }
+        return null;
+    }
+
+    /**
+     * Whether the schema has the rezervari.updated_at column and the rezervari_sterse table, which every insert,
+     * update and delete writes. Returns null if the query failed.
+     */
+    public Boolean hasChangeTracking() {
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_CHANGE_TRACKING);
+             ResultSet rs = stmt.executeQuery()) {
+
+            if (rs.next()) {
+                return rs.getInt("updated_at_columns") > 0 && rs.getInt("tombstone_tables") > 0;
+            }
+        } catch (SQLException e) {
+            logger.error("Eroare la verificarea schemei pentru urmărirea modificărilor rezervărilor", e);
+        }
+        return null;
+    }
+
     public List<Reservation> findByHotelId(Long hotelId) {
         List<Reservation> reservations = new ArrayList<>();
-        String sql = "SELECT r.*, c.nr_camera, c.pret_per_noapte, c.tip_camera, c.capacitate, " +
-                "c.id_hotel, h.nume as hotel_name " +
-                "FROM rezervari r " +
-                "JOIN camera c ON r.id_camera = c.id " +
-                "JOIN hotel h ON c.id_hotel = h.id " +
-                "WHERE c.id_hotel = ? " +
-                "ORDER BY r.start_date DESC";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_HOTEL_ID)) {
 
             stmt.setLong(1, hotelId);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Reservation> mapper = new ReservationRowMapper(ResultSetColumns.of(rs));
                 while (rs.next()) {
-                    Reservation reservation = mapResultSetToReservation(rs);
+                    Reservation reservation = mapper.mapRow(rs);
                     reservations.add(reservation);
                 }
             }
@@ -141,21 +404,16 @@ public class ReservationRepository {
 
     public List<Reservation> findByCustomerName(String customerName) {
         List<Reservation> reservations = new ArrayList<>();
-        String sql = "SELECT r.*, c.nr_camera, c.pret_per_noapte, c.tip_camera, c.capacitate, " +
-                "c.id_hotel, h.nume as hotel_name " +
-                "FROM rezervari r " +
-                "LEFT JOIN camera c ON r.id_camera = c.id " +
-                "LEFT JOIN hotel h ON c.id_hotel = h.id " +
-                "WHERE r.customer_name LIKE ? ORDER BY r.start_date DESC";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_CUSTOMER_NAME)) {
 
             stmt.setString(1, "%" + customerName + "%");
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Reservation> mapper = new ReservationRowMapper(ResultSetColumns.of(rs));
                 while (rs.next()) {
-                    Reservation reservation = mapResultSetToReservation(rs);
+                    Reservation reservation = mapper.mapRow(rs);
                     reservations.add(reservation);
                 }
             }
@@ -169,238 +427,232 @@ public class ReservationRepository {
         return reservations;
     }
 
-    public Optional<Reservation> findById(Long id) {
-        String sql = "SELECT r.*, c.nr_camera, c.pret_per_noapte, c.tip_camera, c.capacitate, " +
-                "c.id_hotel, h.nume as hotel_name " +
-                "FROM rezervari r " +
-                "LEFT JOIN camera c ON r.id_camera = c.id " +
-                "LEFT JOIN hotel h ON c.id_hotel = h.id " +
-                "WHERE r.id = ?";
+    /**
+     * Returns up to pageSize reservations, newest start date first, that come after the given one in that order.
+     * With a null hotelId all hotels are listed; with a null after the first page is returned.
+     */
+    public List<Reservation> findPage(Long hotelId, Reservation after, int pageSize) {
+        List<Reservation> reservations = new ArrayList<>();
+        String statement;
+        if (hotelId == null) {
+            statement = after == null ? FIND_FIRST_PAGE : FIND_PAGE_AFTER;
+        } else {
+            statement = after == null ? FIND_FIRST_PAGE_BY_HOTEL_ID : FIND_PAGE_AFTER_BY_HOTEL_ID;
+        }
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, statement)) {
 
-            stmt.setLong(1, id);
+            int index = 1;
+            if (hotelId != null) {
+                stmt.setLong(index++, hotelId);
+            }
+            if (after != null) {
+                Timestamp afterStart = Timestamp.valueOf(after.getStartDate());
+                stmt.setTimestamp(index++, afterStart);
+                stmt.setTimestamp(index++, afterStart);
+                stmt.setLong(index++, after.getId());
+            }
+            stmt.setInt(index, pageSize);
 
             try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    Reservation reservation = mapResultSetToReservation(rs);
-                    return Optional.of(reservation);
+                RowMapper<Reservation> mapper = new ReservationRowMapper(ResultSetColumns.of(rs));
+                while (rs.next()) {
+                    reservations.add(mapper.mapRow(rs));
                 }
             }
         } catch (SQLException e) {
-            logger.error("Eroare la preluarea rezervării cu id-ul: " + id, e);
+            logger.error("Eroare la preluarea unei pagini de rezervări pentru hotelul cu id-ul: " + hotelId, e);
         }
 
-        return Optional.empty();
+        return reservations;
     }
 
-    public Long save(Reservation reservation) {
-        String sql = "INSERT INTO rezervari (start_date, end_date, id_camera, customer_name, customer_email, customer_phone, total_price, payment_status) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        String[] generatedColumns = {"id"};
-
+    public Optional<Reservation> findById(Long id) {
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-
-            stmt.setTimestamp(1, Timestamp.valueOf(reservation.getStartDate()));
-            stmt.setTimestamp(2, Timestamp.valueOf(reservation.getEndDate()));
-
-            if (reservation.getRoomId() != null) {
-                stmt.setLong(3, reservation.getRoomId());
-            } else {
-                stmt.setNull(3, Types.BIGINT);
-            }
-
-            stmt.setString(4, reservation.getCustomerName());
-            stmt.setString(5, reservation.getCustomerEmail());
-            stmt.setString(6, reservation.getCustomerPhone());
-
-            if (reservation.getTotalPrice() != null) {
-                stmt.setDouble(7, reservation.getTotalPrice());
-            } else {
-                stmt.setNull(7, Types.DOUBLE);
-            }
-
-            stmt.setString(8, reservation.getPaymentStatus());
-
-            int affectedRows = stmt.executeUpdate();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_ID)) {
 
-            if (affectedRows == 0) {
-                return null;
-            }
+            stmt.setLong(1, id);
 
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Reservation> mapper = new ReservationRowMapper(ResultSetColumns.of(rs));
                 if (rs.next()) {
-                    return rs.getLong(1);
+                    Reservation reservation = mapper.mapRow(rs);
+                    return Optional.of(reservation);
                 }
             }
         } catch (SQLException e) {
-            logger.error("Eroare la salvarea rezervării pentru camera cu id-ul: " + reservation.getRoomId(), e);
+            logger.error("Eroare la preluarea rezervării cu id-ul: " + id, e);
         }
 
-        return null;
+        return Optional.empty();
     }
 
-    public boolean update(Reservation reservation) {
-        String sql = "UPDATE rezervari SET start_date = ?, end_date = ?, id_camera = ?, " +
-                "customer_name = ?, customer_email = ?, customer_phone = ?, " +
-                "total_price = ?, payment_status = ? WHERE id = ?";
-
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setTimestamp(1, Timestamp.valueOf(reservation.getStartDate()));
-            stmt.setTimestamp(2, Timestamp.valueOf(reservation.getEndDate()));
+    /**
+     * Deletes the reservation and records a tombstone for the incremental export, in one transaction.
+     */
+    public boolean delete(Long id) {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                int rowsAffected;
+                try (PreparedStatement stmt = StatementRegistry.prepare(conn, DELETE)) {
+                    stmt.setLong(1, id);
+                    rowsAffected = stmt.executeUpdate();
+                }
 
-            if (reservation.getRoomId() != null) {
-                stmt.setLong(3, reservation.getRoomId());
-            } else {
-                stmt.setNull(3, Types.BIGINT);
-            }
+                if (rowsAffected == 0) {
+                    conn.rollback();
+                    return false;
+                }
 
-            stmt.setString(4, reservation.getCustomerName());
-            stmt.setString(5, reservation.getCustomerEmail());
-            stmt.setString(6, reservation.getCustomerPhone());
+                try (PreparedStatement stmt = StatementRegistry.prepare(conn, INSERT_TOMBSTONE)) {
+                    stmt.setLong(1, id);
+                    stmt.executeUpdate();
+                }
 
-            if (reservation.getTotalPrice() != null) {
-                stmt.setDouble(7, reservation.getTotalPrice());
-            } else {
-                stmt.setNull(7, Types.DOUBLE);
+                conn.commit();
+                availabilityIndex.remove(id);
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
-
-            stmt.setString(8, reservation.getPaymentStatus());
-            stmt.setLong(9, reservation.getId());
-
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
         } catch (SQLException e) {
-            logger.error("Eroare la actualizarea rezervării cu id-ul: " + reservation.getId(), e);
+            logger.error("Eroare la ștergerea rezervării cu id-ul: " + id, e);
             return false;
         }
     }
 
-    public boolean delete(Long id) {
-        String sql = "DELETE FROM rezervari WHERE id = ?";
+    /**
+     * Inserts the reservation only if its room exists and has no overlapping reservation.
+     * The room row is locked for the duration of the transaction, so two clerks booking the same room
+     * are serialized and the overlap probe cannot be invalidated before the INSERT commits.
+     * On success the generated id is set on the reservation.
+     */
+    public BookingStatus saveIfAvailable(Reservation reservation) {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                BookingStatus probe = lockRoomAndProbeOverlap(conn, reservation, 0L);
+                if (probe != BookingStatus.BOOKED) {
+                    conn.rollback();
+                    return probe;
+                }
 
-        try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+                try (PreparedStatement stmt = StatementRegistry.prepare(conn, SAVE)) {
+                    bindReservationColumns(stmt, reservation);
+                    stmt.executeUpdate();
 
-            stmt.setLong(1, id);
+                    try (ResultSet rs = stmt.getGeneratedKeys()) {
+                        if (rs.next()) {
+                            reservation.setId(rs.getLong(1));
+                        }
+                    }
+                }
 
-            int rowsAffected = stmt.executeUpdate();
-            return rowsAffected > 0;
+                conn.commit();
+                availabilityIndex.put(reservation);
+                return BookingStatus.BOOKED;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
-            logger.error("Eroare la ștergerea rezervării cu id-ul: " + id, e);
-            return false;
+            logger.error("Eroare la salvarea tranzacțională a rezervării pentru camera cu id-ul: " + reservation.getRoomId(), e);
+            return BookingStatus.ERROR;
         }
     }
 
-    private Reservation mapResultSetToReservation(ResultSet rs) throws SQLException {
-        Reservation reservation = new Reservation();
+    /**
+     * Updates the reservation only if the (possibly new) room is free in the new window,
+     * ignoring the reservation itself. Same locking rules as saveIfAvailable.
+     */
+    public BookingStatus updateIfAvailable(Reservation reservation) {
+        try (Connection conn = DBConnection.getConnection()) {
+            conn.setAutoCommit(false);
+            try {
+                BookingStatus probe = lockRoomAndProbeOverlap(conn, reservation, reservation.getId());
+                if (probe != BookingStatus.BOOKED) {
+                    conn.rollback();
+                    return probe;
+                }
 
-        try {
-            reservation.setId(rs.getLong("id"));
-        } catch (SQLException e) {
-            logger.error("Eroare la citirea id-ului rezervării", e);
-        }
+                int rowsAffected;
+                try (PreparedStatement stmt = StatementRegistry.prepare(conn, UPDATE)) {
+                    bindReservationColumns(stmt, reservation);
+                    stmt.setLong(9, reservation.getId());
+                    rowsAffected = stmt.executeUpdate();
+                }
 
-        try {
-            Timestamp startTimestamp = rs.getTimestamp("start_date");
-            if (startTimestamp != null) {
-                reservation.setStartDate(startTimestamp.toLocalDateTime());
-            }
+                if (rowsAffected == 0) {
+                    conn.rollback();
+                    return BookingStatus.NOT_FOUND;
+                }
 
-            Timestamp endTimestamp = rs.getTimestamp("end_date");
-            if (endTimestamp != null) {
-                reservation.setEndDate(endTimestamp.toLocalDateTime());
+                conn.commit();
+                availabilityIndex.put(reservation);
+                return BookingStatus.BOOKED;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
             }
         } catch (SQLException e) {
-            logger.error("Eroare la citirea datelor start_date sau end_date", e);
+            logger.error("Eroare la actualizarea tranzacțională a rezervării cu id-ul: " + reservation.getId(), e);
+            return BookingStatus.ERROR;
         }
+    }
 
-        try {
-            Long roomId = rs.getLong("id_camera");
-            if (!rs.wasNull()) {
-                reservation.setRoomId(roomId);
-
-                // Creăm și obiectul Room din datele din rezultat
-                Room room = new Room();
-                room.setId(roomId);
-
-                try {
-                    room.setRoomNumber(rs.getString("nr_camera"));
-                    room.setPricePerNight(rs.getDouble("pret_per_noapte"));
-                    room.setRoomType(rs.getString("tip_camera"));
-
-                    // Încercăm să obținem capacitatea
-                    try {
-                        int capacitate = rs.getInt("capacitate");
-                        if (!rs.wasNull()) {
-                            room.setCapacity(capacitate);
-                        }
-                    } catch (SQLException e) {
-                        // Ignorăm eroarea dacă capacitatea nu există
-                    }
-
-                    // Încercăm să obținem hotelul
-                    try {
-                        Long hotelId = rs.getLong("id_hotel");
-                        if (!rs.wasNull()) {
-                            room.setHotelId(hotelId);
-
-                            Hotel hotel = new Hotel();
-                            hotel.setId(hotelId);
-                            hotel.setName(rs.getString("hotel_name"));
-                            room.setHotel(hotel);
-                        }
-                    } catch (SQLException e) {
-                        // Ignorăm eroarea dacă id_hotel nu există
-                    }
+    /**
+     * Locks the room row and looks for one overlapping reservation in the requested window, in a single round trip.
+     * Returns BOOKED when the write may proceed.
+     */
+    private BookingStatus lockRoomAndProbeOverlap(Connection conn, Reservation reservation, Long excludedReservationId) throws SQLException {
+        try (PreparedStatement stmt = StatementRegistry.prepare(conn, LOCK_ROOM_AND_PROBE_OVERLAP)) {
+            stmt.setTimestamp(1, Timestamp.valueOf(reservation.getEndDate()));
+            stmt.setTimestamp(2, Timestamp.valueOf(reservation.getStartDate()));
+            stmt.setLong(3, excludedReservationId != null ? excludedReservationId : 0L);
+            stmt.setLong(4, reservation.getRoomId());
 
-                    reservation.setRoom(room);
-                } catch (SQLException e) {
-                    // Ignorăm eroarea dacă unele câmpuri ale camerei nu există
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    return BookingStatus.ROOM_NOT_FOUND;
+                }
+                rs.getLong("conflict_id");
+                if (!rs.wasNull()) {
+                    return BookingStatus.CONFLICT;
                 }
+                return BookingStatus.BOOKED;
             }
-        } catch (SQLException e) {
-            logger.error("Eroare la citirea câmpului id_camera", e);
         }
+    }
 
-        // Preluăm și restul câmpurilor din baza de date
-        try {
-            reservation.setCustomerName(rs.getString("customer_name"));
-        } catch (SQLException e) {
-            logger.debug("Câmpul customer_name ar putea să lipsească din tabelul rezervărilor");
-        }
+    private void bindReservationColumns(PreparedStatement stmt, Reservation reservation) throws SQLException {
+        stmt.setTimestamp(1, Timestamp.valueOf(reservation.getStartDate()));
+        stmt.setTimestamp(2, Timestamp.valueOf(reservation.getEndDate()));
 
-        try {
-            reservation.setCustomerEmail(rs.getString("customer_email"));
-        } catch (SQLException e) {
-            logger.debug("Câmpul customer_email ar putea să lipsească din tabelul rezervărilor");
+        if (reservation.getRoomId() != null) {
+            stmt.setLong(3, reservation.getRoomId());
+        } else {
+            stmt.setNull(3, Types.BIGINT);
         }
 
-        try {
-            reservation.setCustomerPhone(rs.getString("customer_phone"));
-        } catch (SQLException e) {
-            logger.debug("Câmpul customer_phone ar putea să lipsească din tabelul rezervărilor");
-        }
+        stmt.setString(4, reservation.getCustomerName());
+        stmt.setString(5, reservation.getCustomerEmail());
+        stmt.setString(6, reservation.getCustomerPhone());
 
-        try {
-            Double totalPrice = rs.getDouble("total_price");
-            if (!rs.wasNull()) {
-                reservation.setTotalPrice(totalPrice);
-            }
-        } catch (SQLException e) {
-            logger.debug("Câmpul total_price ar putea să lipsească din tabelul rezervărilor");
-        }
-
-        try {
-            reservation.setPaymentStatus(rs.getString("payment_status"));
-        } catch (SQLException e) {
-            logger.debug("Câmpul payment_status ar putea să lipsească din tabelul rezervărilor");
+        if (reservation.getTotalPrice() != null) {
+            stmt.setDouble(7, reservation.getTotalPrice());
+        } else {
+            stmt.setNull(7, Types.DOUBLE);
         }
 
-        return reservation;
+        stmt.setString(8, reservation.getPaymentStatus());
     }
-}
\ No newline at end of file
+}
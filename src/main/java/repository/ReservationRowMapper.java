@@ -0,0 +1,91 @@
+package repository;
+
+import model.Reservation;
+import model.Room;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps rezervari columns. The room summary joined by ReservationRepository
+ * (nr_camera, pret_per_noapte, tip_camera, capacitate, id_hotel, hotel_name) is attached when present,
+ * resolved through RoomSummaries.
+ */
+final class ReservationRowMapper implements RowMapper<Reservation> {
+    private final int id;
+    private final int startDate;
+    private final int endDate;
+    private final int roomId;
+    private final int customerName;
+    private final int customerEmail;
+    private final int customerPhone;
+    private final int totalPrice;
+    private final int paymentStatus;
+    private final int updatedAt;
+
+    private final int roomNumber;
+    private final int pricePerNight;
+    private final int roomType;
+    private final int capacity;
+    private final int hotelId;
+    private final int hotelName;
+    private final RoomSummaries summaries = new RoomSummaries();
+
+    ReservationRowMapper(ResultSetColumns columns) {
+        this.id = columns.indexOf("id");
+        this.startDate = columns.indexOf("start_date");
+        this.endDate = columns.indexOf("end_date");
+        this.roomId = columns.indexOf("id_camera");
+        this.customerName = columns.indexOf("customer_name");
+        this.customerEmail = columns.indexOf("customer_email");
+        this.customerPhone = columns.indexOf("customer_phone");
+        this.totalPrice = columns.indexOf("total_price");
+        this.paymentStatus = columns.indexOf("payment_status");
+        this.updatedAt = columns.indexOf("updated_at");
+
+        this.roomNumber = columns.indexOf("nr_camera");
+        this.pricePerNight = columns.indexOf("pret_per_noapte");
+        this.roomType = columns.indexOf("tip_camera");
+        this.capacity = columns.indexOf("capacitate");
+        this.hotelId = columns.indexOf("id_hotel");
+        this.hotelName = columns.indexOf("hotel_name");
+    }
+
+    @Override
+    public Reservation mapRow(ResultSet rs) throws SQLException {
+        Reservation reservation = new Reservation();
+        reservation.setId(ResultSetColumns.getLong(rs, id));
+        reservation.setStartDate(ResultSetColumns.getDateTime(rs, startDate));
+        reservation.setEndDate(ResultSetColumns.getDateTime(rs, endDate));
+        reservation.setRoomId(ResultSetColumns.getLong(rs, roomId));
+        reservation.setCustomerName(ResultSetColumns.getString(rs, customerName));
+        reservation.setCustomerEmail(ResultSetColumns.getString(rs, customerEmail));
+        reservation.setCustomerPhone(ResultSetColumns.getString(rs, customerPhone));
+        reservation.setTotalPrice(ResultSetColumns.getDouble(rs, totalPrice));
+        reservation.setPaymentStatus(ResultSetColumns.getString(rs, paymentStatus));
+        if (updatedAt != ResultSetColumns.MISSING) {
+            reservation.setUpdatedAt(ResultSetColumns.getDateTime(rs, updatedAt));
+        }
+
+        if (reservation.getRoomId() != null) {
+            reservation.setRoom(summaries.room(reservation.getRoomId(), room -> mapRoom(rs, room)));
+        }
+
+        return reservation;
+    }
+
+    private void mapRoom(ResultSet rs, Room room) throws SQLException {
+        room.setRoomNumber(ResultSetColumns.getString(rs, roomNumber));
+        if (pricePerNight != ResultSetColumns.MISSING) {
+            room.setPricePerNight(rs.getDouble(pricePerNight));
+        }
+        room.setRoomType(ResultSetColumns.getString(rs, roomType));
+        room.setCapacity(ResultSetColumns.getInt(rs, capacity));
+
+        Long roomHotelId = ResultSetColumns.getLong(rs, hotelId);
+        if (roomHotelId != null) {
+            room.setHotelId(roomHotelId);
+            room.setHotel(summaries.hotel(roomHotelId, hotel -> hotel.setName(ResultSetColumns.getString(rs, hotelName))));
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package repository;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Column label to index lookup, read once from the metadata of a ResultSet.
+ * A column that is not part of the result resolves to index 0; the getters return null for it
+ * instead of throwing, so optional columns cost nothing per row.
+ */
+public final class ResultSetColumns {
+    public static final int MISSING = 0;
+
+    private final Map<String, Integer> indexes;
+
+    private ResultSetColumns(Map<String, Integer> indexes) {
+        this.indexes = indexes;
+    }
+
+    public static ResultSetColumns of(ResultSet rs) throws SQLException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        int columnCount = metaData.getColumnCount();
+        Map<String, Integer> indexes = new HashMap<>(columnCount * 2);
+        for (int i = 1; i <= columnCount; i++) {
+            // The first occurrence wins, like a lookup by name on the ResultSet itself
+            indexes.putIfAbsent(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT), i);
+        }
+        return new ResultSetColumns(indexes);
+    }
+
+    public int indexOf(String label) {
+        return indexes.getOrDefault(label.toLowerCase(Locale.ROOT), MISSING);
+    }
+
+    public static Long getLong(ResultSet rs, int index) throws SQLException {
+        if (index == MISSING) {
+            return null;
+        }
+        long value = rs.getLong(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    public static Integer getInt(ResultSet rs, int index) throws SQLException {
+        if (index == MISSING) {
+            return null;
+        }
+        int value = rs.getInt(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    public static Double getDouble(ResultSet rs, int index) throws SQLException {
+        if (index == MISSING) {
+            return null;
+        }
+        double value = rs.getDouble(index);
+        return rs.wasNull() ? null : value;
+    }
+
+    public static String getString(ResultSet rs, int index) throws SQLException {
+        return index == MISSING ? null : rs.getString(index);
+    }
+
+    public static LocalDateTime getDateTime(ResultSet rs, int index) throws SQLException {
+        if (index == MISSING) {
+            return null;
+        }
+        Timestamp timestamp = rs.getTimestamp(index);
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,341 @@
+package repository;
+
+import model.Reservation;
+import org.example.tema2ps.DBConnection;
+import org.example.tema2ps.StatementRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * In-memory index of booked intervals per room, built from rezervari on first use.
+ * ReservationRepository and RoomRepository keep it current for writes made by this application;
+ * a full reload happens periodically so writes from other front desks become visible as well.
+ * Loads run without the lock and are swapped in at the end, so readers keep using the previous data meanwhile.
+ * The database stays authoritative: bookings are still verified transactionally before they are written.
+ */
+public class RoomAvailabilityIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RoomAvailabilityIndex.class);
+    private static final long RELOAD_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final String RELOAD_ROOM = StatementRegistry.define("availability.reloadRoom",
+            "SELECT id, id_camera, start_date, end_date FROM rezervari WHERE id_camera = ?");
+
+    private static final String REFRESH_RESERVATIONS = StatementRegistry.define("availability.refresh.reservations",
+            "SELECT id, id_camera, start_date, end_date FROM rezervari WHERE id_camera IS NOT NULL");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Guarded by lock; null until the first load succeeds
+    private Snapshot snapshot;
+    // Writes made while a load is reading the database, replayed onto its result before it is swapped in; guarded by lock
+    private final Set<List<Consumer<Snapshot>>> recorders = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long loadedAt;
+
+    /**
+     * Returns the ids of the given rooms that have no reservation overlapping [start, end],
+     * or null if the index could not be loaded.
+     */
+    public Set<Long> findFreeRooms(Collection<Long> roomIds, LocalDateTime start, LocalDateTime end) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            if (snapshot == null) {
+                return null;
+            }
+            Set<Long> free = new HashSet<>();
+            for (Long roomId : roomIds) {
+                RoomSchedule schedule = snapshot.schedulesByRoom.get(roomId);
+                if (schedule == null || !schedule.overlaps(start, end, null)) {
+                    free.add(roomId);
+                }
+            }
+            return free;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Adds a reservation, or moves it if it was already indexed under other dates or another room.
+     */
+    public void put(Reservation reservation) {
+        if (reservation.getId() == null || reservation.getRoomId() == null
+                || reservation.getStartDate() == null || reservation.getEndDate() == null) {
+            return;
+        }
+        Interval interval = new Interval(reservation.getId(), reservation.getRoomId(),
+                reservation.getStartDate(), reservation.getEndDate());
+        write(target -> {
+            target.removeInterval(interval.reservationId);
+            target.addInterval(interval);
+        });
+    }
+
+    public void remove(Long reservationId) {
+        write(target -> target.removeInterval(reservationId));
+    }
+
+    /**
+     * Drops the schedule of a deleted room.
+     */
+    public void removeRoom(Long roomId) {
+        write(target -> target.removeRoom(roomId));
+    }
+
+    /**
+     * Re-reads the booked intervals of one room, e.g. after the database reported a conflict the index missed.
+     * On failure the index keeps what it had for the room.
+     */
+    public void reloadRoom(Long roomId) {
+        if (!isLoaded()) {
+            return;
+        }
+        List<Consumer<Snapshot>> recorder = startRecording();
+        List<Interval> intervals = new ArrayList<>();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, RELOAD_ROOM)) {
+
+            stmt.setLong(1, roomId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    intervals.add(mapInterval(rs));
+                }
+            }
+        } catch (SQLException e) {
+            logger.error("Eroare la reîncărcarea disponibilității camerei cu id-ul: " + roomId, e);
+            stopRecording(recorder);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            recorders.remove(recorder);
+            if (snapshot != null) {
+                snapshot.removeRoom(roomId);
+                for (Interval interval : intervals) {
+                    snapshot.addInterval(interval);
+                }
+                replay(recorder, snapshot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the whole index from the database. On failure the previous contents, if any, are kept.
+     */
+    public void refresh() {
+        List<Consumer<Snapshot>> recorder = startRecording();
+        Snapshot loaded = new Snapshot();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, REFRESH_RESERVATIONS);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                loaded.addInterval(mapInterval(rs));
+            }
+        } catch (SQLException e) {
+            logger.error("Eroare la încărcarea indexului de disponibilitate", e);
+            stopRecording(recorder);
+            return;
+        }
+
+        lock.writeLock().lock();
+        try {
+            recorders.remove(recorder);
+            replay(recorder, loaded);
+            snapshot = loaded;
+            loadedAt = System.currentTimeMillis();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Indexul de disponibilitate a fost încărcat: {} camere, {} rezervări",
+                loaded.schedulesByRoom.size(), loaded.intervalsByReservation.size());
+    }
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return snapshot != null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the index if it is missing. Once it is stale, one caller reloads it while the others keep reading the current one.
+     */
+    private void ensureLoaded() {
+        if (System.currentTimeMillis() - loadedAt <= RELOAD_INTERVAL_MILLIS && isLoaded()) {
+            return;
+        }
+        if (!isLoaded()) {
+            synchronized (this) {
+                if (!isLoaded()) {
+                    refresh();
+                }
+            }
+        } else if (refreshing.compareAndSet(false, true)) {
+            try {
+                refresh();
+            } finally {
+                refreshing.set(false);
+            }
+        }
+    }
+
+    private void write(Consumer<Snapshot> change) {
+        lock.writeLock().lock();
+        try {
+            if (snapshot != null) {
+                change.accept(snapshot);
+            }
+            for (List<Consumer<Snapshot>> recorder : recorders) {
+                recorder.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private List<Consumer<Snapshot>> startRecording() {
+        List<Consumer<Snapshot>> recorder = new ArrayList<>();
+        lock.writeLock().lock();
+        try {
+            recorders.add(recorder);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return recorder;
+    }
+
+    private void stopRecording(List<Consumer<Snapshot>> recorder) {
+        lock.writeLock().lock();
+        try {
+            recorders.remove(recorder);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void replay(List<Consumer<Snapshot>> recorder, Snapshot target) {
+        for (Consumer<Snapshot> change : recorder) {
+            change.accept(target);
+        }
+    }
+
+    private Interval mapInterval(ResultSet rs) throws SQLException {
+        Timestamp start = rs.getTimestamp("start_date");
+        Timestamp end = rs.getTimestamp("end_date");
+        return new Interval(rs.getLong("id"), rs.getLong("id_camera"),
+                start != null ? start.toLocalDateTime() : LocalDateTime.MIN,
+                end != null ? end.toLocalDateTime() : LocalDateTime.MAX);
+    }
+
+    private static final class Snapshot {
+        private final Map<Long, RoomSchedule> schedulesByRoom = new HashMap<>();
+        private final Map<Long, Interval> intervalsByReservation = new HashMap<>();
+
+        void addInterval(Interval interval) {
+            schedulesByRoom.computeIfAbsent(interval.roomId, key -> new RoomSchedule()).add(interval);
+            intervalsByReservation.put(interval.reservationId, interval);
+        }
+
+        void removeInterval(Long reservationId) {
+            Interval interval = intervalsByReservation.remove(reservationId);
+            if (interval != null) {
+                RoomSchedule schedule = schedulesByRoom.get(interval.roomId);
+                if (schedule != null) {
+                    schedule.intervals.remove(interval);
+                }
+            }
+        }
+
+        void removeRoom(Long roomId) {
+            RoomSchedule schedule = schedulesByRoom.remove(roomId);
+            if (schedule != null) {
+                for (Interval interval : schedule.intervals) {
+                    intervalsByReservation.remove(interval.reservationId);
+                }
+            }
+        }
+    }
+
+    private static final class Interval {
+        private static final Comparator<Interval> BY_START =
+                Comparator.comparing((Interval interval) -> interval.start).thenComparingLong(interval -> interval.reservationId);
+
+        private final long reservationId;
+        private final long roomId;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+
+        Interval(long reservationId, long roomId, LocalDateTime start, LocalDateTime end) {
+            this.reservationId = reservationId;
+            this.roomId = roomId;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Intervals of one room sorted by start. While they are pairwise disjoint (the normal case, since
+     * bookings are checked for overlaps) a probe only has to look at the few intervals starting before its end.
+     */
+    private static final class RoomSchedule {
+        private final NavigableSet<Interval> intervals = new TreeSet<>(Interval.BY_START);
+        private boolean disjoint = true;
+
+        void add(Interval interval) {
+            if (disjoint && overlaps(interval.start, interval.end, interval.reservationId)) {
+                disjoint = false;
+            }
+            intervals.add(interval);
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end, Long excludedReservationId) {
+            // Every candidate starts at or before the probe's end; it overlaps when it ends at or after the probe's start
+            Interval upperBound = new Interval(Long.MAX_VALUE, 0, end, end);
+            Iterator<Interval> candidates = intervals.headSet(upperBound, true).descendingIterator();
+            while (candidates.hasNext()) {
+                Interval candidate = candidates.next();
+                if (excludedReservationId != null && candidate.reservationId == excludedReservationId) {
+                    continue;
+                }
+                if (!candidate.end.isBefore(start)) {
+                    return true;
+                }
+                if (disjoint) {
+                    // Earlier intervals end before this one starts, so they end before the probe starts too
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+}
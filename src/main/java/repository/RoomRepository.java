@@ -2,10 +2,13 @@ package repository;
 
 import model.Hotel;
 import model.Room;
+import model.RoomTypeStats;
 import org.example.tema2ps.DBConnection;
+import org.example.tema2ps.StatementRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 
 import java.sql.*;
@@ -16,30 +19,66 @@ import java.util.Optional;
 
 public class RoomRepository {
     private static final Logger logger = LoggerFactory.getLogger(RoomRepository.class);
-    private final HotelRepository hotelRepository;
-
-    public RoomRepository() {
-        this.hotelRepository = new HotelRepository();
+    // Room columns plus the owning hotel, its location and chain, so a single query materializes the whole row
+    private static final String ROOM_WITH_HOTEL_SELECT = "SELECT c.*, h.nume as hotel_name, h.id_locatie as hotel_location_id, " +
+            "h.telefon as hotel_phone, h.email as hotel_email, h.facilitati as hotel_amenities, h.id_lant as hotel_chain_id, " +
+            "l.id as loc_id, l.tara, l.oras, l.strada, l.numar, " +
+            "ln.id as chain_id, ln.nume as chain_name " +
+            "FROM camera c " +
+            "LEFT JOIN hotel h ON c.id_hotel = h.id " +
+            "LEFT JOIN locatie l ON h.id_locatie = l.id " +
+            "LEFT JOIN lant ln ON h.id_lant = ln.id ";
+
+    private static final String FIND_ALL = StatementRegistry.define("room.findAll",
+            ROOM_WITH_HOTEL_SELECT + "ORDER BY c.id_hotel, c.nr_camera");
+
+    private static final String FIND_BY_HOTEL_ID = StatementRegistry.define("room.findByHotelId",
+            ROOM_WITH_HOTEL_SELECT + "WHERE c.id_hotel = ? ORDER BY c.nr_camera");
+
+    private static final String FIND_BY_HOTEL_ID_AND_PRICE = StatementRegistry.define("room.findByHotelIdAndPrice",
+            ROOM_WITH_HOTEL_SELECT + "WHERE c.id_hotel = ? AND c.pret_per_noapte BETWEEN ? AND ? ORDER BY c.pret_per_noapte");
+
+    private static final String FIND_AVAILABLE_ROOMS_BY_HOTEL_ID_AND_DATE = StatementRegistry.define("room.findAvailableRoomsByHotelIdAndDate",
+            ROOM_WITH_HOTEL_SELECT + "WHERE c.id_hotel = ? " +
+            "AND NOT EXISTS (SELECT 1 FROM rezervari r " +
+            "WHERE r.id_camera = c.id AND r.start_date <= ? AND r.end_date >= ?)");
+
+    private static final String STREAM_AVAILABLE_ROOMS_BY_HOTEL_ID_AND_DATE = StatementRegistry.defineStreaming(
+            "room.streamAvailableRoomsByHotelIdAndDate",
+            StatementRegistry.getSql(FIND_AVAILABLE_ROOMS_BY_HOTEL_ID_AND_DATE));
+
+    private static final String FIND_BY_ID = StatementRegistry.define("room.findById",
+            ROOM_WITH_HOTEL_SELECT + "WHERE c.id = ?");
+
+    private static final String SAVE = StatementRegistry.defineInsert("room.save",
+            "INSERT INTO camera (id_hotel, nr_camera, pret_per_noapte, id_poze, facilitati, tip_camera, capacitate) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)");
+
+    private static final String UPDATE = StatementRegistry.define("room.update",
+            "UPDATE camera SET id_hotel = ?, nr_camera = ?, pret_per_noapte = ?, " +
+            "id_poze = ?, facilitati = ?, tip_camera = ?, capacitate = ? WHERE id = ?");
+
+    private static final String DELETE = StatementRegistry.define("room.delete",
+            "DELETE FROM camera WHERE id = ?");
+
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomTypeCatalog roomTypeCatalog;
+
+    public RoomRepository(RoomAvailabilityIndex availabilityIndex, RoomTypeCatalog roomTypeCatalog) {
+        this.availabilityIndex = availabilityIndex;
+        this.roomTypeCatalog = roomTypeCatalog;
     }
 
     public List<Room> findAll() {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM camera ORDER BY id_hotel, nr_camera";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_ALL);
              ResultSet rs = stmt.executeQuery()) {
 
+            RowMapper<Room> mapper = new RoomRowMapper(ResultSetColumns.of(rs));
             while (rs.next()) {
-                Room room = mapResultSetToRoom(rs);
-
-                // Load hotel data
-                if (room.getHotelId() != null) {
-                    Optional<Hotel> hotel = hotelRepository.findById(room.getHotelId());
-                    hotel.ifPresent(room::setHotel);
-                }
-
-                rooms.add(room);
+                rooms.add(mapper.mapRow(rs));
             }
         } catch (SQLException e) {
             logger.error("Error fetching all rooms", e);
@@ -50,22 +89,16 @@ public class RoomRepository {
 
     public List<Room> findByHotelId(Long hotelId) {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM camera WHERE id_hotel = ? ORDER BY nr_camera";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_HOTEL_ID)) {
 
             stmt.setLong(1, hotelId);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Room> mapper = new RoomRowMapper(ResultSetColumns.of(rs));
                 while (rs.next()) {
-                    Room room = mapResultSetToRoom(rs);
-
-                    // Load hotel data
-                    Optional<Hotel> hotel = hotelRepository.findById(hotelId);
-                    hotel.ifPresent(room::setHotel);
-
-                    rooms.add(room);
+                    rooms.add(mapper.mapRow(rs));
                 }
             }
         } catch (SQLException e) {
@@ -77,24 +110,18 @@ public class RoomRepository {
 
     public List<Room> findByHotelIdAndPrice(Long hotelId, Double minPrice, Double maxPrice) {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT * FROM camera WHERE id_hotel = ? AND pret_per_noapte BETWEEN ? AND ? ORDER BY pret_per_noapte";
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_HOTEL_ID_AND_PRICE)) {
 
             stmt.setLong(1, hotelId);
             stmt.setDouble(2, minPrice);
             stmt.setDouble(3, maxPrice);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Room> mapper = new RoomRowMapper(ResultSetColumns.of(rs));
                 while (rs.next()) {
-                    Room room = mapResultSetToRoom(rs);
-
-                    // Load hotel data
-                    Optional<Hotel> hotel = hotelRepository.findById(hotelId);
-                    hotel.ifPresent(room::setHotel);
-
-                    rooms.add(room);
+                    rooms.add(mapper.mapRow(rs));
                 }
             }
         } catch (SQLException e) {
@@ -106,32 +133,19 @@ public class RoomRepository {
 
     public List<Room> findAvailableRoomsByHotelIdAndDate(Long hotelId, LocalDateTime startDate, LocalDateTime endDate) {
         List<Room> rooms = new ArrayList<>();
-        String sql = "SELECT c.* FROM camera c WHERE c.id_hotel = ? " +
-                "AND c.id NOT IN (SELECT r.id_camera FROM rezervari r WHERE " +
-                "((r.start_date <= ? AND r.end_date >= ?) OR " +
-                "(r.start_date <= ? AND r.end_date >= ?) OR " +
-                "(r.start_date >= ? AND r.end_date <= ?)))";
+        // Anti-join probing only this hotel's rooms; each probe is a range seek on idx_rezervari_camera_perioada
 
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_AVAILABLE_ROOMS_BY_HOTEL_ID_AND_DATE)) {
 
             stmt.setLong(1, hotelId);
-            stmt.setTimestamp(2, Timestamp.valueOf(startDate));
+            stmt.setTimestamp(2, Timestamp.valueOf(endDate));
             stmt.setTimestamp(3, Timestamp.valueOf(startDate));
-            stmt.setTimestamp(4, Timestamp.valueOf(endDate));
-            stmt.setTimestamp(5, Timestamp.valueOf(endDate));
-            stmt.setTimestamp(6, Timestamp.valueOf(startDate));
-            stmt.setTimestamp(7, Timestamp.valueOf(endDate));
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Room> mapper = new RoomRowMapper(ResultSetColumns.of(rs));
                 while (rs.next()) {
-                    Room room = mapResultSetToRoom(rs);
-
-                    // Load hotel data
-                    Optional<Hotel> hotel = hotelRepository.findById(hotelId);
-                    hotel.ifPresent(room::setHotel);
-
-                    rooms.add(room);
+                    rooms.add(mapper.mapRow(rs));
                 }
             }
         } catch (SQLException e) {
@@ -141,25 +155,45 @@ public class RoomRepository {
         return rooms;
     }
 
-    public Optional<Room> findById(Long id) {
-        String sql = "SELECT * FROM camera WHERE id = ?";
+    /**
+     * Same rows as findAvailableRoomsByHotelIdAndDate, handed to the handler as they arrive from the cursor.
+     * Returns false if the query failed.
+     */
+    public boolean streamAvailableRoomsByHotelIdAndDate(Long hotelId, LocalDateTime startDate, LocalDateTime endDate,
+                                                        RowHandler<Room> handler) throws IOException {
+        IdentityMap.Scope unbound = IdentityMap.suspend();
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, STREAM_AVAILABLE_ROOMS_BY_HOTEL_ID_AND_DATE)) {
+
+            stmt.setLong(1, hotelId);
+            stmt.setTimestamp(2, Timestamp.valueOf(endDate));
+            stmt.setTimestamp(3, Timestamp.valueOf(startDate));
 
+            try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Room> mapper = new RoomRowMapper(ResultSetColumns.of(rs));
+                while (rs.next()) {
+                    handler.handle(mapper.mapRow(rs));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.error("Eroare la parcurgerea camerelor disponibile după id-ul hotelului și dată: " + hotelId, e);
+            return false;
+        } finally {
+            unbound.close();
+        }
+    }
+
+    public Optional<Room> findById(Long id) {
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, FIND_BY_ID)) {
 
             stmt.setLong(1, id);
 
             try (ResultSet rs = stmt.executeQuery()) {
+                RowMapper<Room> mapper = new RoomRowMapper(ResultSetColumns.of(rs));
                 if (rs.next()) {
-                    Room room = mapResultSetToRoom(rs);
-
-                    // Load hotel data
-                    if (room.getHotelId() != null) {
-                        Optional<Hotel> hotel = hotelRepository.findById(room.getHotelId());
-                        hotel.ifPresent(room::setHotel);
-                    }
-
-                    return Optional.of(room);
+                    return Optional.of(mapper.mapRow(rs));
                 }
             }
         } catch (SQLException e) {
@@ -170,12 +204,8 @@ public class RoomRepository {
     }
 
     public Long save(Room room) {
-        String sql = "INSERT INTO camera (id_hotel, nr_camera, pret_per_noapte, id_poze, facilitati, tip_camera, capacitate) " +
-                "VALUES (?, ?, ?, ?, ?, ?, ?)";
-        String[] generatedColumns = {"id"};
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, SAVE)) {
 
             if (room.getHotelId() != null) {
                 stmt.setLong(1, room.getHotelId());
@@ -206,7 +236,9 @@ public class RoomRepository {
 
             try (ResultSet rs = stmt.getGeneratedKeys()) {
                 if (rs.next()) {
-                    return rs.getLong(1);
+                    long id = rs.getLong(1);
+                    roomTypeCatalog.put(id, room);
+                    return id;
                 }
             }
         } catch (SQLException e) {
@@ -217,11 +249,8 @@ public class RoomRepository {
     }
 
     public boolean update(Room room) {
-        String sql = "UPDATE camera SET id_hotel = ?, nr_camera = ?, pret_per_noapte = ?, " +
-                "id_poze = ?, facilitati = ?, tip_camera = ?, capacitate = ? WHERE id = ?";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, UPDATE)) {
 
             if (room.getHotelId() != null) {
                 stmt.setLong(1, room.getHotelId());
@@ -246,6 +275,9 @@ public class RoomRepository {
             stmt.setLong(8, room.getId());
 
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                roomTypeCatalog.put(room.getId(), room);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             logger.error("Eroare la actualizarea camerei cu id-ul: " + room.getId(), e);
@@ -254,14 +286,16 @@ public class RoomRepository {
     }
 
     public boolean delete(Long id) {
-        String sql = "DELETE FROM camera WHERE id = ?";
-
         try (Connection conn = DBConnection.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = StatementRegistry.prepare(conn, DELETE)) {
 
             stmt.setLong(1, id);
 
             int rowsAffected = stmt.executeUpdate();
+            if (rowsAffected > 0) {
+                availabilityIndex.removeRoom(id);
+                roomTypeCatalog.remove(id);
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             logger.error("Eroare la ștergerea camerei cu id-ul: " + id, e);
@@ -270,26 +304,12 @@ public class RoomRepository {
     }
 
     public List<String> findAllRoomTypes() {
-        List<String> types = new ArrayList<>();
-
-        try {
-            String sql = "SELECT DISTINCT tip_camera FROM camera WHERE tip_camera IS NOT NULL ORDER BY tip_camera";
-
-            try (Connection conn = DBConnection.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql);
-                 ResultSet rs = stmt.executeQuery()) {
-
-                while (rs.next()) {
-                    String type = rs.getString("tip_camera");
-                    if (type != null && !type.isEmpty()) {
-                        types.add(type);
-                    }
-                }
-            }
-        } catch (SQLException e) {
-            logger.error("Eroare la obținerea tuturor tipurilor de camere", e);
+        // Served from the in-memory catalog; null means it could not be loaded
+        List<String> types = roomTypeCatalog.getRoomTypes();
+        if (types == null) {
+            logger.error("Eroare la obținerea tuturor tipurilor de camere");
             // Tip-uri predefinite în caz de eroare
-            types.addAll(Arrays.asList("Single", "Double", "Twin", "Suite", "Deluxe"));
+            return new ArrayList<>(Arrays.asList("Single", "Double", "Twin", "Suite", "Deluxe"));
         }
 
         // Dacă nu s-au găsit tipuri în baza de date, adăugăm valori implicite
@@ -300,63 +320,10 @@ public class RoomRepository {
         return types;
     }
 
-    private Room mapResultSetToRoom(ResultSet rs) throws SQLException {
-        Room room = new Room();
-        room.setId(rs.getLong("id"));
-
-        try {
-            Long hotelId = rs.getLong("id_hotel");
-            if (!rs.wasNull()) {
-                room.setHotelId(hotelId);
-            }
-        } catch (SQLException e) {
-            // Câmpul ar putea să nu existe
-        }
-
-        try {
-            room.setRoomNumber(rs.getString("nr_camera"));
-        } catch (SQLException e) {
-            // Câmpul ar putea să nu existe
-        }
-
-        try {
-            room.setPricePerNight(rs.getDouble("pret_per_noapte"));
-        } catch (SQLException e) {
-            // Câmpul ar putea să nu existe
-        }
-
-        try {
-            Long imageId = rs.getLong("id_poze");
-            if (!rs.wasNull()) {
-                room.setImageId(imageId);
-            }
-        } catch (SQLException e) {
-            // Câmpul ar putea să nu existe
-        }
-
-        try {
-            room.setAmenities(rs.getString("facilitati"));
-        } catch (SQLException e) {
-            // Câmpul ar putea să nu existe
-        }
-
-        try {
-            room.setRoomType(rs.getString("tip_camera"));
-        } catch (SQLException e) {
-            // Câmpul ar putea să nu existe
-        }
-
-        try {
-            // Actualizat: Folosim numele corect al coloanei: capacitate
-            int capacitate = rs.getInt("capacitate");
-            if (!rs.wasNull()) {
-                room.setCapacity(capacitate);
-            }
-        } catch (SQLException e) {
-            // Câmpul ar putea să nu existe
-            logger.debug("Câmpul capacitate nu a fost găsit în rezultatul interogării", e);
-        }
-
-        return room;
+    /**
+     * Room count and price range per room type for one hotel.
+     */
+    public List<RoomTypeStats> findRoomTypeStatsByHotelId(Long hotelId) {
+        return roomTypeCatalog.getRoomTypeStats(hotelId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,125 @@
+package repository;
+
+import model.Hotel;
+import model.Room;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Maps camera columns. When the query joins the owning hotel under the hotel_* aliases of
+ * RoomRepository, the hotel (with its location and chain) is attached too, one instance per hotel id
+ * for the whole ResultSet, or for the session when an IdentityMap is bound. Session instances that are
+ * already registered are not written to; their refresh is queued on the IdentityMap.
+ */
+final class RoomRowMapper implements RowMapper<Room> {
+    private final int id;
+    private final int hotelId;
+    private final int roomNumber;
+    private final int pricePerNight;
+    private final int imageId;
+    private final int amenities;
+    private final int roomType;
+    private final int capacity;
+
+    private final boolean withHotel;
+    private final int hotelName;
+    private final int hotelLocationId;
+    private final int hotelPhone;
+    private final int hotelEmail;
+    private final int hotelAmenities;
+    private final int hotelChainId;
+    private final LocationRowMapper locationMapper;
+    private final ChainRowMapper chainMapper;
+    private final Map<Long, Hotel> hotels = new HashMap<>();
+
+    RoomRowMapper(ResultSetColumns columns) {
+        this.id = columns.indexOf("id");
+        this.hotelId = columns.indexOf("id_hotel");
+        this.roomNumber = columns.indexOf("nr_camera");
+        this.pricePerNight = columns.indexOf("pret_per_noapte");
+        this.imageId = columns.indexOf("id_poze");
+        this.amenities = columns.indexOf("facilitati");
+        this.roomType = columns.indexOf("tip_camera");
+        this.capacity = columns.indexOf("capacitate");
+
+        this.hotelName = columns.indexOf("hotel_name");
+        this.withHotel = hotelName != ResultSetColumns.MISSING;
+        this.hotelLocationId = columns.indexOf("hotel_location_id");
+        this.hotelPhone = columns.indexOf("hotel_phone");
+        this.hotelEmail = columns.indexOf("hotel_email");
+        this.hotelAmenities = columns.indexOf("hotel_amenities");
+        this.hotelChainId = columns.indexOf("hotel_chain_id");
+        this.locationMapper = new LocationRowMapper(columns, "loc_id");
+        this.chainMapper = new ChainRowMapper(columns, "chain_id", "chain_name");
+    }
+
+    @Override
+    public Room mapRow(ResultSet rs) throws SQLException {
+        IdentityMap identityMap = IdentityMap.current();
+        Room room = new Room();
+        room.setId(ResultSetColumns.getLong(rs, id));
+        room.setHotelId(ResultSetColumns.getLong(rs, hotelId));
+        room.setRoomNumber(ResultSetColumns.getString(rs, roomNumber));
+        if (pricePerNight != ResultSetColumns.MISSING) {
+            // A NULL price reads as 0, like the column default
+            room.setPricePerNight(rs.getDouble(pricePerNight));
+        }
+        room.setImageId(ResultSetColumns.getLong(rs, imageId));
+        room.setAmenities(ResultSetColumns.getString(rs, amenities));
+        room.setRoomType(ResultSetColumns.getString(rs, roomType));
+        room.setCapacity(ResultSetColumns.getInt(rs, capacity));
+
+        if (withHotel && room.getHotelId() != null) {
+            Hotel hotel = hotels.get(room.getHotelId());
+            if (hotel == null) {
+                // First row of this hotel in the result
+                hotel = new Hotel();
+                hotel.setId(room.getHotelId());
+                mapHotel(rs, hotel);
+                if (identityMap != null) {
+                    hotel = identityMap.resolve(Hotel.class, hotel.getId(), hotel, ReferenceDataCache::copyInto);
+                }
+                hotels.put(room.getHotelId(), hotel);
+            }
+            room.setHotel(hotel);
+        }
+
+        return identityMap != null ? identityMap.resolve(Room.class, room.getId(), room, RoomRowMapper::copyInto) : room;
+    }
+
+    private static void copyInto(Room room, Room target) {
+        target.setHotelId(room.getHotelId());
+        target.setRoomNumber(room.getRoomNumber());
+        target.setPricePerNight(room.getPricePerNight());
+        target.setImageId(room.getImageId());
+        target.setAmenities(room.getAmenities());
+        target.setRoomType(room.getRoomType());
+        target.setCapacity(room.getCapacity());
+        if (room.getHotel() != null) {
+            target.setHotel(room.getHotel());
+        } else if (target.getHotel() != null && !Objects.equals(target.getHotel().getId(), room.getHotelId())) {
+            target.setHotel(null);
+        }
+    }
+
+    private void mapHotel(ResultSet rs, Hotel hotel) throws SQLException {
+        hotel.setName(ResultSetColumns.getString(rs, hotelName));
+        hotel.setPhone(ResultSetColumns.getString(rs, hotelPhone));
+        hotel.setEmail(ResultSetColumns.getString(rs, hotelEmail));
+        hotel.setAmenities(ResultSetColumns.getString(rs, hotelAmenities));
+
+        hotel.setLocationId(ResultSetColumns.getLong(rs, hotelLocationId));
+        if (hotel.getLocationId() != null) {
+            hotel.setLocation(locationMapper.mapRow(rs));
+        }
+
+        hotel.setChainId(ResultSetColumns.getLong(rs, hotelChainId));
+        if (hotel.getChainId() != null) {
+            hotel.setChain(chainMapper.mapRow(rs));
+        }
+    }
+}
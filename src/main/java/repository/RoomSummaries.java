@@ -0,0 +1,62 @@
+package repository;
+
+import model.Hotel;
+import model.Room;
+
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Resolves the room and hotel summaries attached to reservations: one instance per id for a whole result,
+ * or per session when an IdentityMap is bound. The summaries are partial, so an instance the session already
+ * holds is used as it is; only instances new to the session are filled in and registered.
+ */
+final class RoomSummaries {
+    @FunctionalInterface
+    interface Filler<T> {
+        void fill(T target) throws SQLException;
+    }
+
+    private final IdentityMap identityMap = IdentityMap.current();
+    private final Map<Long, Room> rooms = new HashMap<>();
+    private final Map<Long, Hotel> hotels = new HashMap<>();
+
+    Room room(Long id, Filler<Room> filler) throws SQLException {
+        Room room = rooms.get(id);
+        if (room != null) {
+            return room;
+        }
+
+        room = identityMap != null ? identityMap.find(Room.class, id) : null;
+        if (room == null) {
+            room = new Room();
+            room.setId(id);
+            filler.fill(room);
+            if (identityMap != null) {
+                room = identityMap.register(Room.class, id, room);
+            }
+        }
+        rooms.put(id, room);
+        return room;
+    }
+
+    Hotel hotel(Long id, Filler<Hotel> filler) throws SQLException {
+        Hotel hotel = hotels.get(id);
+        if (hotel != null) {
+            return hotel;
+        }
+
+        hotel = identityMap != null ? identityMap.find(Hotel.class, id) : null;
+        if (hotel == null) {
+            hotel = new Hotel();
+            hotel.setId(id);
+            filler.fill(hotel);
+            if (identityMap != null) {
+                hotel = identityMap.register(Hotel.class, id, hotel);
+            }
+        }
+        hotels.put(id, hotel);
+        return hotel;
+    }
+}
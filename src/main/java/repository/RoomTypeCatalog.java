@@ -0,0 +1,173 @@
+package repository;
+
+import model.Room;
+import model.RoomTypeStats;
+import org.example.tema2ps.DBConnection;
+import org.example.tema2ps.StatementRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * In-memory catalog of room types, built from camera on first use and kept current by RoomRepository.
+ * Besides the distinct types it keeps, per hotel and type, the number of rooms and the multiset of nightly prices,
+ * so counts and price ranges can be answered without a query.
+ */
+public class RoomTypeCatalog {
+    private static final Logger logger = LoggerFactory.getLogger(RoomTypeCatalog.class);
+
+    private static final String LOAD = StatementRegistry.define("roomTypeCatalog.load",
+            "SELECT id, id_hotel, tip_camera, pret_per_noapte FROM camera WHERE tip_camera IS NOT NULL AND tip_camera <> ''");
+
+    // Guarded by this
+    private final Map<Long, RoomEntry> roomsById = new HashMap<>();
+    private final TreeMap<String, Integer> roomCountByType = new TreeMap<>();
+    private final Map<Long, TreeMap<String, TreeMap<Double, Integer>>> pricesByHotelAndType = new HashMap<>();
+    private boolean loaded;
+
+    /**
+     * Distinct room types in alphabetical order, or null when the catalog could not be loaded.
+     */
+    public synchronized List<String> getRoomTypes() {
+        if (!ensureLoaded()) {
+            return null;
+        }
+        return new ArrayList<>(roomCountByType.keySet());
+    }
+
+    /**
+     * Room count and price range per type for one hotel, ordered by type.
+     */
+    public synchronized List<RoomTypeStats> getRoomTypeStats(Long hotelId) {
+        List<RoomTypeStats> stats = new ArrayList<>();
+        if (!ensureLoaded()) {
+            return stats;
+        }
+
+        TreeMap<String, TreeMap<Double, Integer>> pricesByType = pricesByHotelAndType.get(hotelId);
+        if (pricesByType == null) {
+            return stats;
+        }
+        for (Map.Entry<String, TreeMap<Double, Integer>> entry : pricesByType.entrySet()) {
+            int count = 0;
+            for (int occurrences : entry.getValue().values()) {
+                count += occurrences;
+            }
+            stats.add(new RoomTypeStats(entry.getKey(), count,
+                    entry.getValue().firstKey(), entry.getValue().lastKey()));
+        }
+        return stats;
+    }
+
+    /**
+     * Records a saved or updated room, replacing what was known about it.
+     * The id is passed separately because a freshly inserted room does not carry it yet.
+     */
+    public synchronized void put(Long roomId, Room room) {
+        if (!loaded) {
+            return;
+        }
+        removeEntry(roomsById.remove(roomId));
+
+        if (room.getRoomType() != null && !room.getRoomType().isEmpty()) {
+            RoomEntry entry = new RoomEntry(room.getHotelId(), room.getRoomType(),
+                    room.getPricePerNight() != null ? room.getPricePerNight() : 0.0);
+            roomsById.put(roomId, entry);
+            addEntry(entry);
+        }
+    }
+
+    public synchronized void remove(Long roomId) {
+        if (loaded) {
+            removeEntry(roomsById.remove(roomId));
+        }
+    }
+
+    /**
+     * Rebuilds the catalog from the database.
+     */
+    public synchronized void refresh() {
+        roomsById.clear();
+        roomCountByType.clear();
+        pricesByHotelAndType.clear();
+        loaded = false;
+
+        try (Connection conn = DBConnection.getConnection();
+             PreparedStatement stmt = StatementRegistry.prepare(conn, LOAD);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                long hotelId = rs.getLong(2);
+                RoomEntry entry = new RoomEntry(rs.wasNull() ? null : hotelId, rs.getString(3), rs.getDouble(4));
+                roomsById.put(rs.getLong(1), entry);
+                addEntry(entry);
+            }
+
+            loaded = true;
+            logger.info("Catalogul tipurilor de camere a fost încărcat: {} tipuri, {} camere",
+                    roomCountByType.size(), roomsById.size());
+        } catch (SQLException e) {
+            logger.error("Eroare la încărcarea catalogului tipurilor de camere", e);
+        }
+    }
+
+    private boolean ensureLoaded() {
+        if (!loaded) {
+            refresh();
+        }
+        return loaded;
+    }
+
+    private void addEntry(RoomEntry entry) {
+        roomCountByType.merge(entry.roomType, 1, Integer::sum);
+        if (entry.hotelId != null) {
+            pricesByHotelAndType.computeIfAbsent(entry.hotelId, key -> new TreeMap<>())
+                    .computeIfAbsent(entry.roomType, key -> new TreeMap<>())
+                    .merge(entry.price, 1, Integer::sum);
+        }
+    }
+
+    private void removeEntry(RoomEntry entry) {
+        if (entry == null) {
+            return;
+        }
+        // merge with a null result drops the key once its count reaches zero
+        roomCountByType.merge(entry.roomType, -1, (count, delta) -> count + delta == 0 ? null : count + delta);
+        if (entry.hotelId != null) {
+            TreeMap<String, TreeMap<Double, Integer>> pricesByType = pricesByHotelAndType.get(entry.hotelId);
+            if (pricesByType != null) {
+                TreeMap<Double, Integer> prices = pricesByType.get(entry.roomType);
+                if (prices != null) {
+                    prices.merge(entry.price, -1, (count, delta) -> count + delta == 0 ? null : count + delta);
+                    if (prices.isEmpty()) {
+                        pricesByType.remove(entry.roomType);
+                    }
+                }
+                if (pricesByType.isEmpty()) {
+                    pricesByHotelAndType.remove(entry.hotelId);
+                }
+            }
+        }
+    }
+
+    private static final class RoomEntry {
+        private final Long hotelId;
+        private final String roomType;
+        private final double price;
+
+        RoomEntry(Long hotelId, String roomType, double price) {
+            this.hotelId = hotelId;
+            this.roomType = roomType;
+            this.price = price;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package repository;
+
+import java.io.IOException;
+
+/**
+ * Receives the rows of a streaming finder one at a time, while the cursor is still open.
+ * Handlers typically write each row straight to an export file, hence the IOException.
+ */
+@FunctionalInterface
+public interface RowHandler<T> {
+    void handle(T row) throws IOException;
+}
@@ -0,0 +1,14 @@
+package repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet to an object.
+ * Implementations resolve their column indexes once, through ResultSetColumns, when they are created for a ResultSet,
+ * so mapping a row only does positional reads.
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    T mapRow(ResultSet rs) throws SQLException;
+}
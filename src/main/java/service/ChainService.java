@@ -9,25 +9,25 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class ChainService {
     private static final Logger logger = LoggerFactory.getLogger(ChainService.class);
     private final ChainRepository chainRepository;
     private final HotelRepository hotelRepository;
+    private final ServiceExecutor executor;
 
-    public ChainService() {
-        this.chainRepository = new ChainRepository();
-        this.hotelRepository = new HotelRepository();
+    public ChainService(ChainRepository chainRepository, HotelRepository hotelRepository, ServiceExecutor executor) {
+        this.chainRepository = chainRepository;
+        this.hotelRepository = hotelRepository;
+        this.executor = executor;
     }
 
-    public List<Chain> getAllChains() {
-        List<Chain> chains = chainRepository.findAll();
-        for (Chain chain : chains) {
-            // Load hotels for each chain
-            List<Hotel> hotels = hotelRepository.findByChainId(chain.getId());
-            chain.setHotels(hotels);
-        }
-        return chains;
+    /**
+     * The chains alone, from the cached lant listing; used to fill chain selectors.
+     */
+    public List<Chain> getChainsWithoutHotels() {
+        return chainRepository.findAll();
     }
 
     public Optional<Chain> getChainById(Long id) {
@@ -79,4 +79,10 @@ public class ChainService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // Asynchronous variants, run on the service executor
+
+    public CompletableFuture<List<Chain>> getChainsWithoutHotelsAsync() {
+        return executor.submit(this::getChainsWithoutHotels);
+    }
+}
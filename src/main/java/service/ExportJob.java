@@ -0,0 +1,141 @@
+package service;
+
+import repository.RowHandler;
+import util.ExportSink;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One export submitted to the ExportJobManager: its state, the rows written so far and the size of the file on disk.
+ * Instances are updated by the worker running the export and may be read from any thread.
+ */
+public class ExportJob {
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED
+    }
+
+    // Progress is reported at most this often, checked every PROGRESS_CHECK_ROWS rows
+    private static final long PROGRESS_INTERVAL_NANOS = 250_000_000L;
+    private static final int PROGRESS_CHECK_ROWS = 256;
+
+    private final long id;
+    private final String description;
+    private final File file;
+    // Removed again if the job fails or is cancelled; an append-only target is never listed here
+    private final List<File> outputs;
+    private final ExportJobManager manager;
+
+    private volatile State state = State.QUEUED;
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private volatile long bytesWritten;
+    private volatile boolean cancelRequested;
+    private volatile long lastProgressNanos;
+
+    // The task as handed to the pool, so a queued job can be taken back out of the queue
+    Runnable runnable;
+
+    ExportJob(long id, String description, File file, List<File> outputs, ExportJobManager manager) {
+        this.id = id;
+        this.description = description;
+        this.file = file;
+        this.outputs = List.copyOf(outputs);
+        this.manager = manager;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Files the job writes from scratch, deleted when it fails or is cancelled.
+     */
+    public List<File> getOutputs() {
+        return outputs;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    public boolean isDone() {
+        return state == State.COMPLETED || state == State.FAILED || state == State.CANCELLED;
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    /**
+     * Asks the job to stop. A queued job is dropped at once; a running one stops at its next row.
+     */
+    public void cancel() {
+        manager.cancel(this);
+    }
+
+    /**
+     * Wraps a sink into the row handler passed to a streaming finder; see track(RowHandler).
+     */
+    public <T> RowHandler<T> track(ExportSink<T> sink) {
+        return track(sink::write);
+    }
+
+    /**
+     * Wraps the handler of a streaming finder: each row is handled, counted and reported to the manager's
+     * listeners from time to time, and a cancellation request ends the stream with a CancellationException.
+     * The returned handler may be used by several threads at once, as the parallel parts of one export.
+     */
+    public <T> RowHandler<T> track(RowHandler<T> handler) {
+        return row -> {
+            if (cancelRequested) {
+                throw new CancellationException("Export anulat: " + description);
+            }
+            handler.handle(row);
+            if (rowsWritten.incrementAndGet() % PROGRESS_CHECK_ROWS == 0) {
+                long now = System.nanoTime();
+                if (now - lastProgressNanos >= PROGRESS_INTERVAL_NANOS) {
+                    lastProgressNanos = now;
+                    updateBytesWritten();
+                    manager.notifyListeners(this);
+                }
+            }
+        };
+    }
+
+    void requestCancel() {
+        cancelRequested = true;
+    }
+
+    void setState(State state) {
+        this.state = state;
+    }
+
+    // Buffered writers lag behind, so this is the size on disk rather than the bytes produced
+    void updateBytesWritten() {
+        bytesWritten = file.length();
+    }
+
+    @Override
+    public String toString() {
+        return "ExportJob{id=" + id + ", description='" + description + "', state=" + state +
+                ", rowsWritten=" + rowsWritten + ", bytesWritten=" + bytesWritten + "}";
+    }
+}
@@ -0,0 +1,175 @@
+package service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Runs exports in the background on a pool of its own, separate from the ServiceExecutor,
+ * so a long export never delays the queries behind the views.
+ * Jobs wait in a bounded queue; once it is full new jobs fail right away instead of piling up.
+ * Listeners are told about every state change and, while a job runs, about its progress.
+ * They are called on the worker thread.
+ */
+public class ExportJobManager {
+    private static final Logger logger = LoggerFactory.getLogger(ExportJobManager.class);
+
+    /**
+     * The export itself. Returns false on a failure it has already logged; throwing a CancellationException
+     * (which ExportJob.track does once the job is cancelled) marks the job as cancelled.
+     */
+    @FunctionalInterface
+    public interface ExportTask {
+        boolean run(ExportJob job) throws IOException;
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final List<Consumer<ExportJob>> listeners = new CopyOnWriteArrayList<>();
+    private final Map<Long, ExportJob> activeJobs = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+
+    public ExportJobManager(int threads, int queueCapacity) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "export-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory);
+    }
+
+    public ExportJob submit(String description, File file, ExportTask task) {
+        return submit(description, file, List.of(file), task);
+    }
+
+    /**
+     * Submits a job whose progress is reported through file, while outputs lists the files to delete if it
+     * fails or is cancelled, so no truncated report is left behind; a file the task only appends to must be left out.
+     */
+    public ExportJob submit(String description, File file, List<File> outputs, ExportTask task) {
+        ExportJob job = new ExportJob(nextId.incrementAndGet(), description, file, outputs, this);
+        job.runnable = () -> run(job, task);
+        activeJobs.put(job.getId(), job);
+        try {
+            executor.execute(job.runnable);
+            logger.info("Export pus în coadă: {}", job);
+            notifyListeners(job);
+        } catch (RejectedExecutionException e) {
+            logger.warn("Coada de exporturi este plină, exportul a fost respins: {}", description);
+            finish(job, ExportJob.State.FAILED);
+        }
+        return job;
+    }
+
+    public void cancel(ExportJob job) {
+        if (job.isDone()) {
+            return;
+        }
+        job.requestCancel();
+        // A job still in the queue is taken out; a running one notices the request at its next row
+        if (executor.remove(job.runnable)) {
+            finish(job, ExportJob.State.CANCELLED);
+        }
+    }
+
+    public void cancelAll() {
+        for (ExportJob job : getActiveJobs()) {
+            cancel(job);
+        }
+    }
+
+    /**
+     * Jobs queued or running, in no particular order.
+     */
+    public List<ExportJob> getActiveJobs() {
+        return new ArrayList<>(activeJobs.values());
+    }
+
+    public void addListener(Consumer<ExportJob> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<ExportJob> listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Cancels all jobs and waits briefly for the running ones to stop.
+     */
+    public void shutdown() {
+        cancelAll();
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Unele exporturi în desfășurare nu s-au încheiat la oprire");
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void notifyListeners(ExportJob job) {
+        for (Consumer<ExportJob> listener : listeners) {
+            try {
+                listener.accept(job);
+            } catch (RuntimeException e) {
+                logger.error("Eroare într-un listener de export", e);
+            }
+        }
+    }
+
+    private void run(ExportJob job, ExportTask task) {
+        if (job.isCancelRequested()) {
+            finish(job, ExportJob.State.CANCELLED);
+            return;
+        }
+        job.setState(ExportJob.State.RUNNING);
+        notifyListeners(job);
+
+        ExportJob.State result;
+        try {
+            result = task.run(job) ? ExportJob.State.COMPLETED : ExportJob.State.FAILED;
+        } catch (CancellationException e) {
+            result = ExportJob.State.CANCELLED;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Eroare la rularea exportului: " + job.getDescription(), e);
+            result = ExportJob.State.FAILED;
+        }
+
+        if (result != ExportJob.State.COMPLETED) {
+            for (File output : job.getOutputs()) {
+                if (output.exists() && !output.delete()) {
+                    logger.warn("Fișierul incomplet al exportului nu a putut fi șters: {}", output.getAbsolutePath());
+                }
+            }
+        }
+        finish(job, result);
+    }
+
+    private void finish(ExportJob job, ExportJob.State state) {
+        job.updateBytesWritten();
+        job.setState(state);
+        activeJobs.remove(job.getId());
+        logger.info("Export încheiat: {}", job);
+        notifyListeners(job);
+    }
+}
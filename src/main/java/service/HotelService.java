@@ -1,6 +1,7 @@
 package service;
 
 import model.Hotel;
+import model.HotelSummary;
 import model.Location;
 import model.Room;
 import repository.HotelRepository;
@@ -11,33 +12,39 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class HotelService {
     private static final Logger logger = LoggerFactory.getLogger(HotelService.class);
     private final HotelRepository hotelRepository;
     private final LocationRepository locationRepository;
     private final RoomRepository roomRepository;
+    private final ServiceExecutor executor;
 
-    public HotelService() {
-        this.hotelRepository = new HotelRepository();
-        this.locationRepository = new LocationRepository();
-        this.roomRepository = new RoomRepository();
+    public HotelService(HotelRepository hotelRepository, LocationRepository locationRepository,
+                        RoomRepository roomRepository, ServiceExecutor executor) {
+        this.hotelRepository = hotelRepository;
+        this.locationRepository = locationRepository;
+        this.roomRepository = roomRepository;
+        this.executor = executor;
     }
 
-    public List<Hotel> getAllHotels() {
-        List<Hotel> hotels = hotelRepository.findAll();
-        for (Hotel hotel : hotels) {
-            loadAdditionalData(hotel);
-        }
-        return hotels;
+    /**
+     * Hotels with their location and chain, without rooms; enough for listing and editing hotel details.
+     */
+    public List<Hotel> getAllHotelsWithoutRooms() {
+        return hotelRepository.findAll();
     }
 
-    public List<Hotel> getHotelsByChainId(Long chainId) {
-        List<Hotel> hotels = hotelRepository.findByChainId(chainId);
-        for (Hotel hotel : hotels) {
-            loadAdditionalData(hotel);
-        }
-        return hotels;
+    public List<Hotel> getHotelsByChainIdWithoutRooms(Long chainId) {
+        return hotelRepository.findByChainId(chainId);
+    }
+
+    /**
+     * Id, name and city of every hotel, from a single narrow query; used to fill hotel selectors.
+     */
+    public List<HotelSummary> getHotelSummaries() {
+        return hotelRepository.findAllSummaries();
     }
 
     public Optional<Hotel> getHotelById(Long id) {
@@ -129,4 +136,30 @@ public class HotelService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // Asynchronous variants, run on the service executor
+
+    public CompletableFuture<List<Hotel>> getAllHotelsWithoutRoomsAsync() {
+        return executor.submit(this::getAllHotelsWithoutRooms);
+    }
+
+    public CompletableFuture<List<Hotel>> getHotelsByChainIdWithoutRoomsAsync(Long chainId) {
+        return executor.submit(() -> getHotelsByChainIdWithoutRooms(chainId));
+    }
+
+    public CompletableFuture<List<HotelSummary>> getHotelSummariesAsync() {
+        return executor.submit(this::getHotelSummaries);
+    }
+
+    public CompletableFuture<Boolean> addHotelAsync(Hotel hotel) {
+        return executor.submit(() -> addHotel(hotel));
+    }
+
+    public CompletableFuture<Boolean> updateHotelAsync(Hotel hotel) {
+        return executor.submit(() -> updateHotel(hotel));
+    }
+
+    public CompletableFuture<Boolean> deleteHotelAsync(Long id) {
+        return executor.submit(() -> deleteHotel(id));
+    }
+}
@@ -7,13 +7,16 @@ import org.slf4j.LoggerFactory;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 public class LocationService {
     private static final Logger logger = LoggerFactory.getLogger(LocationService.class);
     private final LocationRepository locationRepository;
+    private final ServiceExecutor executor;
 
-    public LocationService() {
-        this.locationRepository = new LocationRepository();
+    public LocationService(LocationRepository locationRepository, ServiceExecutor executor) {
+        this.locationRepository = locationRepository;
+        this.executor = executor;
     }
 
     public List<Location> getAllLocations() {
@@ -55,4 +58,10 @@ public class LocationService {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // Asynchronous variants, run on the service executor
+
+    public CompletableFuture<List<Location>> getAllLocationsAsync() {
+        return executor.submit(this::getAllLocations);
+    }
+}
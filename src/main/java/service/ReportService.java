@@ -1,86 +1,549 @@
 package service;
 
+import model.Hotel;
+import model.HotelReservationTotals;
 import model.Reservation;
+import model.ReservationChange;
 import model.Room;
+import repository.RowHandler;
 import util.CSVExporter;
 import util.DocExporter;
+import util.ExportFormat;
+import util.ExportSink;
+import util.ExportWatermark;
+import util.JsonExporter;
+import util.TeeSink;
+import util.XlsxExporter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 public class ReportService {
     private static final Logger logger = LoggerFactory.getLogger(ReportService.class);
+    // Hotels of a bundle exported at once, each holding a connection while it streams
+    private static final int BUNDLE_PARALLELISM = 3;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String PAID_STATUS = "Paid";
+    private static final String SUMMARY_ENTRY = "sumar.csv";
+    // Changes younger than this are left to the next incremental export, so transactions still open are not missed
+    private static final int CHANGE_CUTOFF_LAG_SECONDS = 60;
+    // Lower bound of the first incremental export of a target
+    private static final LocalDateTime FIRST_CHANGE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final DateTimeFormatter ROTATION_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss");
+
     private final ReservationService reservationService;
     private final RoomService roomService;
+    private final HotelService hotelService;
     private final CSVExporter csvExporter;
     private final DocExporter docExporter;
+    private final JsonExporter jsonExporter;
+    private final XlsxExporter xlsxExporter;
+    private final ExportJobManager exportJobs;
+    // Incremental export jobs by absolute target, so one target never has two of them at once; guarded by itself
+    private final Map<File, ExportJob> changeExports = new HashMap<>();
 
-    public ReportService() {
-        this.reservationService = new ReservationService();
-        this.roomService = new RoomService();
-        this.csvExporter = new CSVExporter();
-        this.docExporter = new DocExporter();
+    public ReportService(ReservationService reservationService, RoomService roomService, HotelService hotelService,
+                         CSVExporter csvExporter, DocExporter docExporter, JsonExporter jsonExporter,
+                         XlsxExporter xlsxExporter, ExportJobManager exportJobs) {
+        this.reservationService = reservationService;
+        this.roomService = roomService;
+        this.hotelService = hotelService;
+        this.csvExporter = csvExporter;
+        this.docExporter = docExporter;
+        this.jsonExporter = jsonExporter;
+        this.xlsxExporter = xlsxExporter;
+        this.exportJobs = exportJobs;
     }
 
-    public boolean exportReservationsToCsv(Long hotelId, LocalDateTime date, File file) {
+    /**
+     * Rows go from the cursor straight to the files, so memory use does not grow with the result.
+     * Each row is read and mapped once, then handed to the writer of every requested format.
+     * Progress is reported through the job, and cancelling it stops the export with a CancellationException.
+     * A failed or cancelled export aborts its sinks instead of closing them, as its files are deleted.
+     */
+    private boolean writeReservations(Map<ExportFormat, File> files, Long hotelId, LocalDateTime date, ExportJob job) {
+        String formats = formatNames(files);
         try {
-            logger.info("Începere export rezervări în CSV pentru hotelul {} la data {}", hotelId, date);
-            List<Reservation> reservations = reservationService.getReservationsByHotelIdAndDate(hotelId, date);
-            logger.info("Au fost găsite {} rezervări pentru export", reservations.size());
-            csvExporter.exportReservationList(reservations, file);
-            logger.info("Export rezervări în CSV finalizat cu succes: {}", file.getAbsolutePath());
+            logger.info("Începere export rezervări în {} pentru hotelul {} la data {}", formats, hotelId, date);
+            ExportSink<Reservation> sink = openSinks(files, this::reservationSinkOpener);
+            boolean streamed;
+            try {
+                streamed = reservationService.streamReservationsByHotelIdAndDate(hotelId, date, job.track(sink));
+            } catch (IOException | RuntimeException e) {
+                abort(sink, e);
+                throw e;
+            }
+            if (!streamed) {
+                sink.abort();
+                logger.error("Export rezervări în {} eșuat: interogarea nu a putut fi executată", formats);
+                return false;
+            }
+            sink.close();
+            logger.info("Au fost exportate {} rezervări", sink.getCount());
+            logger.info("Export rezervări în {} finalizat cu succes: {}", formats, files.values());
             return true;
         } catch (IOException e) {
-            logger.error("Eroare la exportul rezervărilor în CSV", e);
+            logger.error("Eroare la exportul rezervărilor în " + formats, e);
             return false;
         }
     }
 
-    public boolean exportReservationsToDoc(Long hotelId, LocalDateTime date, File file) {
+    private boolean writeAvailableRooms(Map<ExportFormat, File> files, Long hotelId, LocalDateTime startDate,
+                                        LocalDateTime endDate, ExportJob job) {
+        String formats = formatNames(files);
         try {
-            logger.info("Începere export rezervări în DOC pentru hotelul {} la data {}", hotelId, date);
-            List<Reservation> reservations = reservationService.getReservationsByHotelIdAndDate(hotelId, date);
-            logger.info("Au fost găsite {} rezervări pentru export", reservations.size());
-            docExporter.exportReservationList(reservations, file);
-            logger.info("Export rezervări în DOC finalizat cu succes: {}", file.getAbsolutePath());
+            logger.info("Începere export camere disponibile în {} pentru hotelul {} în perioada {} - {}",
+                    formats, hotelId, startDate, endDate);
+            ExportSink<Room> sink = openSinks(files, this::roomSinkOpener);
+            boolean streamed;
+            try {
+                streamed = roomService.streamAvailableRoomsByHotelIdAndDate(hotelId, startDate, endDate, job.track(sink));
+            } catch (IOException | RuntimeException e) {
+                abort(sink, e);
+                throw e;
+            }
+            if (!streamed) {
+                sink.abort();
+                logger.error("Export camere disponibile în {} eșuat: interogarea nu a putut fi executată", formats);
+                return false;
+            }
+            sink.close();
+            logger.info("Au fost exportate {} camere disponibile", sink.getCount());
+            logger.info("Export camere disponibile în {} finalizat cu succes: {}", formats, files.values());
             return true;
         } catch (IOException e) {
-            logger.error("Eroare la exportul rezervărilor în DOC", e);
+            logger.error("Eroare la exportul camerelor disponibile în " + formats, e);
             return false;
         }
     }
 
-    public boolean exportAvailableRoomsToCsv(Long hotelId, LocalDateTime startDate, LocalDateTime endDate, File file) {
+    private SinkOpener<Reservation> reservationSinkOpener(ExportFormat format) {
+        switch (format) {
+            case CSV: return csvExporter::openReservationSink;
+            case DOCX: return docExporter::openReservationSink;
+            case JSON: return jsonExporter::openReservationSink;
+            case XLSX: return xlsxExporter::openReservationSink;
+            default: throw new IllegalArgumentException("Format de export necunoscut: " + format);
+        }
+    }
+
+    private SinkOpener<Room> roomSinkOpener(ExportFormat format) {
+        switch (format) {
+            case CSV: return csvExporter::openRoomSink;
+            case DOCX: return docExporter::openRoomSink;
+            case JSON: return jsonExporter::openRoomSink;
+            case XLSX: return xlsxExporter::openRoomSink;
+            default: throw new IllegalArgumentException("Format de export necunoscut: " + format);
+        }
+    }
+
+    /**
+     * Opens a sink per format; with more than one they are joined in a TeeSink.
+     * If one cannot be opened, those already open are aborted.
+     */
+    private static <T> ExportSink<T> openSinks(Map<ExportFormat, File> files, Function<ExportFormat, SinkOpener<T>> openers)
+            throws IOException {
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("Niciun format de export selectat");
+        }
+        List<ExportSink<T>> sinks = new ArrayList<>();
+        try {
+            for (ExportFormat format : ExportFormat.values()) {
+                if (files.containsKey(format)) {
+                    sinks.add(openers.apply(format).open(files.get(format)));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            abort(new TeeSink<>(sinks), e);
+            throw e;
+        }
+        return sinks.size() == 1 ? sinks.get(0) : new TeeSink<>(sinks);
+    }
+
+    private static void abort(ExportSink<?> sink, Exception failure) {
+        try {
+            sink.abort();
+        } catch (IOException abortFailure) {
+            failure.addSuppressed(abortFailure);
+        }
+    }
+
+    /**
+     * The watermark only moves once the changes are on disk. An export that fails or is cancelled after appending
+     * some rows leaves them in place, and the next one writes them again; upserts and deletions may be repeated.
+     */
+    private boolean writeReservationChanges(File target, File file, ExportJob job) {
         try {
-            logger.info("Începere export camere disponibile în CSV pentru hotelul {} în perioada {} - {}",
-                    hotelId, startDate, endDate);
-            List<Room> availableRooms = roomService.getAvailableRoomsByHotelIdAndDate(hotelId, startDate, endDate);
-            logger.info("Au fost găsite {} camere disponibile pentru export", availableRooms.size());
-            csvExporter.exportRoomList(availableRooms, file);
-            logger.info("Export camere disponibile în CSV finalizat cu succes: {}", file.getAbsolutePath());
+            LocalDateTime exportedBefore = ExportWatermark.read(target);
+            LocalDateTime from = exportedBefore != null ? exportedBefore : FIRST_CHANGE;
+            LocalDateTime to = reservationService.getChangeCutoff(CHANGE_CUTOFF_LAG_SECONDS);
+            if (to == null) {
+                logger.error("Export incremental eșuat: ora bazei de date nu a putut fi citită");
+                return false;
+            }
+            if (!to.isAfter(from)) {
+                logger.info("Export incremental: nicio modificare nouă pentru {}", target.getAbsolutePath());
+                return true;
+            }
+
+            logger.info("Începere export incremental rezervări în intervalul {} - {} în {}", from, to, file.getAbsolutePath());
+            try (ExportSink<ReservationChange> sink = csvExporter.openReservationChangeSink(file, file.equals(target))) {
+                RowHandler<ReservationChange> handler = job.track(sink);
+                if (!reservationService.streamReservationChanges(from, to, handler)) {
+                    logger.error("Export incremental eșuat: interogarea nu a putut fi executată");
+                    return false;
+                }
+                logger.info("Au fost exportate {} modificări de rezervări", sink.getCount());
+            }
+            ExportWatermark.write(target, to);
+            logger.info("Export incremental finalizat cu succes: {}", file.getAbsolutePath());
             return true;
         } catch (IOException e) {
-            logger.error("Eroare la exportul camerelor disponibile în CSV", e);
+            logger.error("Eroare la exportul incremental al rezervărilor în " + file.getAbsolutePath(), e);
             return false;
         }
     }
 
-    public boolean exportAvailableRoomsToDoc(Long hotelId, LocalDateTime startDate, LocalDateTime endDate, File file) {
+    private static File changesFile(File target, boolean rotate) {
+        if (!rotate) {
+            return target;
+        }
+        String name = target.getName();
+        int dot = name.lastIndexOf('.');
+        String baseName = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : ".csv";
+        return new File(target.getAbsoluteFile().getParentFile(),
+                baseName + "_" + LocalDateTime.now().format(ROTATION_SUFFIX) + extension);
+    }
+
+    private boolean runChainBundle(Long chainId, LocalDateTime start, LocalDateTime end, File file, ExportJob job) {
         try {
-            logger.info("Începere export camere disponibile în DOC pentru hotelul {} în perioada {} - {}",
-                    hotelId, startDate, endDate);
-            List<Room> availableRooms = roomService.getAvailableRoomsByHotelIdAndDate(hotelId, startDate, endDate);
-            logger.info("Au fost găsite {} camere disponibile pentru export", availableRooms.size());
-            docExporter.exportRoomList(availableRooms, file);
-            logger.info("Export camere disponibile în DOC finalizat cu succes: {}", file.getAbsolutePath());
-            return true;
+            return writeChainBundle(chainId, start, end, file, job);
         } catch (IOException e) {
-            logger.error("Eroare la exportul camerelor disponibile în DOC", e);
+            logger.error("Eroare la exportul pachetului de rapoarte pentru lanțul " + chainId, e);
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Hotels are exported in parallel, BUNDLE_PARALLELISM at a time, into temporary files. The files of a hotel are
+     * copied into the archive as soon as that hotel is done, while the others are still running.
+     * The archive itself is only written by the calling thread.
+     */
+    private boolean writeChainBundle(Long chainId, LocalDateTime start, LocalDateTime end, File file, ExportJob job)
+            throws IOException {
+        List<Hotel> hotels = chainId != null
+                ? hotelService.getHotelsByChainIdWithoutRooms(chainId)
+                : hotelService.getAllHotelsWithoutRooms();
+        logger.info("Începere export pachet rapoarte pentru {} hoteluri (lanț {}) în perioada {} - {}",
+                hotels.size(), chainId, start, end);
+
+        Path tempDir = Files.createTempDirectory("pachet_rapoarte_");
+        // Stops the hotels still running once the bundle has failed
+        AtomicBoolean aborted = new AtomicBoolean();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(BUNDLE_PARALLELISM, hotels.size())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bundle-worker-" + threadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        CompletionService<HotelExport> completion = new ExecutorCompletionService<>(pool);
+        List<Future<HotelExport>> futures = new ArrayList<>();
+
+        try (ZipOutputStream zip = new ZipOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(file.toPath()), BUFFER_SIZE), StandardCharsets.UTF_8)) {
+            for (Hotel hotel : hotels) {
+                futures.add(completion.submit(() -> exportHotel(hotel, start, end, tempDir, job, aborted)));
+            }
+
+            List<HotelReservationTotals> totals = new ArrayList<>();
+            for (int i = 0; i < hotels.size(); i++) {
+                HotelExport export = takeNext(completion);
+                if (export == null) {
+                    aborted.set(true);
+                    logger.error("Export pachet rapoarte eșuat: rezervările unui hotel nu au putut fi citite");
+                    return false;
+                }
+                addEntry(zip, export.csvFile, export.baseName + ".csv");
+                addEntry(zip, export.docFile, export.baseName + ".docx");
+                totals.add(export.toTotals());
+                job.updateBytesWritten();
+            }
+
+            totals.sort(Comparator.comparing(HotelReservationTotals::getHotelName,
+                    Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER)));
+            File summaryFile = tempDir.resolve(SUMMARY_ENTRY).toFile();
+            try (ExportSink<HotelReservationTotals> sink = csvExporter.openHotelTotalsSink(summaryFile)) {
+                for (HotelReservationTotals hotelTotals : totals) {
+                    sink.write(hotelTotals);
+                }
+            }
+            addEntry(zip, summaryFile, SUMMARY_ENTRY);
+            logger.info("Export pachet rapoarte finalizat cu succes: {} hoteluri în {}", totals.size(), file.getAbsolutePath());
+            return true;
+        } catch (RuntimeException | IOException e) {
+            aborted.set(true);
+            throw e;
+        } finally {
+            for (Future<HotelExport> future : futures) {
+                future.cancel(false);
+            }
+            pool.shutdown();
+            awaitQuietly(pool);
+            deleteRecursively(tempDir);
+        }
+    }
+
+    /**
+     * Streams one hotel's reservations into its CSV and DOCX at once, counting them on the way.
+     * Returns null if the query failed.
+     */
+    private HotelExport exportHotel(Hotel hotel, LocalDateTime start, LocalDateTime end, Path dir, ExportJob job,
+                                    AtomicBoolean aborted) throws IOException {
+        String name = hotel.getName() != null ? hotel.getName() : "";
+        String baseName = "hotel_" + hotel.getId() + "_" + name.replaceAll("[^a-zA-Z0-9]", "_");
+        HotelExport export = new HotelExport(hotel, baseName, dir.resolve(baseName + ".csv").toFile(),
+                dir.resolve(baseName + ".docx").toFile());
+
+        try (ExportSink<Reservation> csv = csvExporter.openReservationSink(export.csvFile);
+             ExportSink<Reservation> doc = docExporter.openReservationSink(export.docFile)) {
+            RowHandler<Reservation> handler = reservation -> {
+                if (aborted.get()) {
+                    throw new CancellationException("Export pachet întrerupt");
+                }
+                csv.write(reservation);
+                doc.write(reservation);
+                export.add(reservation);
+            };
+            if (!reservationService.streamReservationsByHotelIdAndPeriod(hotel.getId(), start, end, job.track(handler))) {
+                return null;
+            }
+        }
+        return export;
+    }
+
+    private static HotelExport takeNext(CompletionService<HotelExport> completion) throws IOException {
+        try {
+            return completion.take().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Export pachet întrerupt");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void addEntry(ZipOutputStream zip, File source, String entryName) throws IOException {
+        zip.putNextEntry(new ZipEntry(entryName));
+        Files.copy(source.toPath(), zip);
+        zip.closeEntry();
+        Files.deleteIfExists(source.toPath());
+    }
+
+    // Hotels still running stop at their next row once aborted; their files must be closed before the cleanup
+    private static void awaitQuietly(ExecutorService pool) {
+        try {
+            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Unele exporturi de hotel nu s-au încheiat la timp");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            logger.warn("Fișierele temporare nu au putut fi șterse: {}", dir, e);
+        }
+    }
+
+    // Background export jobs, run by the ExportJobManager
+
+    public ExportJob submitReservationsCsvExport(Long hotelId, LocalDateTime date, File file) {
+        return submitReservationsExport(hotelId, date, Map.of(ExportFormat.CSV, file));
+    }
+
+    public ExportJob submitReservationsDocExport(Long hotelId, LocalDateTime date, File file) {
+        return submitReservationsExport(hotelId, date, Map.of(ExportFormat.DOCX, file));
+    }
+
+    /**
+     * Writes the reservations to every format in the map, each to its own file, from a single query.
+     */
+    public ExportJob submitReservationsExport(Long hotelId, LocalDateTime date, Map<ExportFormat, File> files) {
+        File file = progressFile(files);
+        return exportJobs.submit("Rezervări " + describe(files, file), file, List.copyOf(files.values()),
+                job -> writeReservations(files, hotelId, date, job));
+    }
+
+    public ExportJob submitAvailableRoomsCsvExport(Long hotelId, LocalDateTime startDate, LocalDateTime endDate, File file) {
+        return submitAvailableRoomsExport(hotelId, startDate, endDate, Map.of(ExportFormat.CSV, file));
+    }
+
+    public ExportJob submitAvailableRoomsDocExport(Long hotelId, LocalDateTime startDate, LocalDateTime endDate, File file) {
+        return submitAvailableRoomsExport(hotelId, startDate, endDate, Map.of(ExportFormat.DOCX, file));
+    }
+
+    public ExportJob submitAvailableRoomsExport(Long hotelId, LocalDateTime startDate, LocalDateTime endDate,
+                                                Map<ExportFormat, File> files) {
+        File file = progressFile(files);
+        return exportJobs.submit("Camere disponibile " + describe(files, file), file, List.copyOf(files.values()),
+                job -> writeAvailableRooms(files, hotelId, startDate, endDate, job));
+    }
+
+    /**
+     * Exports the reservations overlapping [start, end] of every hotel of a chain (of every hotel when chainId is null)
+     * into one ZIP: a CSV and a DOCX per hotel, plus sumar.csv with each hotel's totals.
+     */
+    public ExportJob submitChainBundleExport(Long chainId, LocalDateTime start, LocalDateTime end, File file) {
+        return exportJobs.submit("Pachet rapoarte " + file.getName(), file,
+                job -> runChainBundle(chainId, start, end, file, job));
+    }
+
+    /**
+     * Exports the reservations inserted, updated or deleted since the previous export to the same target,
+     * as recorded by its watermark. The first export of a target contains every reservation.
+     * With rotate, the changes go to a new file next to the target, named after it and the export time;
+     * otherwise they are appended to the target.
+     * Returns null, without submitting anything, while another incremental export of the same target is queued
+     * or running: both would start from the same watermark. When appending, the target is kept even if the job
+     * is cancelled, since it holds the earlier exports.
+     */
+    public ExportJob submitReservationChangesExport(File target, boolean rotate) {
+        File key = target.getAbsoluteFile();
+        synchronized (changeExports) {
+            changeExports.values().removeIf(ExportJob::isDone);
+            if (changeExports.containsKey(key)) {
+                logger.warn("Un export incremental pentru {} este deja în curs", key);
+                return null;
+            }
+            File file = changesFile(target, rotate);
+            ExportJob job = exportJobs.submit("Modificări rezervări " + file.getName(), file,
+                    file.equals(target) ? List.of() : List.of(file),
+                    exportJob -> writeReservationChanges(target, file, exportJob));
+            changeExports.put(key, job);
+            return job;
+        }
+    }
+
+    public void cancelAllExports() {
+        exportJobs.cancelAll();
+    }
+
+    public void addExportListener(Consumer<ExportJob> listener) {
+        exportJobs.addListener(listener);
+    }
+
+    // The job reports the size of this file: the first one, in format order, that grows while the export runs
+    private static File progressFile(Map<ExportFormat, File> files) {
+        File fallback = null;
+        for (ExportFormat format : ExportFormat.values()) {
+            if (files.containsKey(format)) {
+                if (format.isStreaming()) {
+                    return files.get(format);
+                }
+                if (fallback == null) {
+                    fallback = files.get(format);
+                }
+            }
+        }
+        if (fallback == null) {
+            throw new IllegalArgumentException("Niciun format de export selectat");
+        }
+        return fallback;
+    }
+
+    private static String describe(Map<ExportFormat, File> files, File file) {
+        return formatNames(files) + " " + file.getName();
+    }
+
+    private static String formatNames(Map<ExportFormat, File> files) {
+        StringBuilder formats = new StringBuilder();
+        for (ExportFormat format : ExportFormat.values()) {
+            if (files.containsKey(format)) {
+                if (formats.length() > 0) {
+                    formats.append('+');
+                }
+                formats.append(format.name());
+            }
+        }
+        return formats.toString();
+    }
+
+    @FunctionalInterface
+    private interface SinkOpener<T> {
+        ExportSink<T> open(File file) throws IOException;
+    }
+
+    // The files and running totals of one hotel in a bundle; used by a single worker until it is done
+    private static final class HotelExport {
+        private final Hotel hotel;
+        private final String baseName;
+        private final File csvFile;
+        private final File docFile;
+        private long reservationCount;
+        private long paidCount;
+        private double totalRevenue;
+
+        HotelExport(Hotel hotel, String baseName, File csvFile, File docFile) {
+            this.hotel = hotel;
+            this.baseName = baseName;
+            this.csvFile = csvFile;
+            this.docFile = docFile;
+        }
+
+        void add(Reservation reservation) {
+            reservationCount++;
+            if (PAID_STATUS.equalsIgnoreCase(reservation.getPaymentStatus())) {
+                paidCount++;
+            }
+            if (reservation.getTotalPrice() != null) {
+                totalRevenue += reservation.getTotalPrice();
+            }
+        }
+
+        HotelReservationTotals toTotals() {
+            return new HotelReservationTotals(hotel.getId(), hotel.getName(),
+                    hotel.getLocation() != null ? hotel.getLocation().getCity() : null,
+                    reservationCount, paidCount, totalRevenue);
+        }
+    }
+}
@@ -1,24 +1,45 @@
 package service;
 
 import model.Reservation;
+import model.ReservationChange;
 import model.Room;
+import repository.BookingStatus;
 import repository.ReservationRepository;
+import repository.RoomAvailabilityIndex;
 import repository.RoomRepository;
+import repository.RowHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import util.TtlCache;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 
 public class ReservationService {
     private static final Logger logger = LoggerFactory.getLogger(ReservationService.class);
+
     private final ReservationRepository reservationRepository;
     private final RoomRepository roomRepository;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final ServiceExecutor executor;
+    // One per application context, so writes made from one view evict what the reports have cached.
+    // Holds detached reservations, handed out as copies; the TTL bounds how long bookings made by other clients stay invisible.
+    private final TtlCache<DayQuery, List<Reservation>> reservationsByHotelAndDay =
+            new TtlCache<>("reservation.byHotelAndDay", 500, TimeUnit.MINUTES.toMillis(5));
 
-    public ReservationService() {
-        this.reservationRepository = new ReservationRepository();
-        this.roomRepository = new RoomRepository();
+    public ReservationService(ReservationRepository reservationRepository, RoomRepository roomRepository,
+                              RoomAvailabilityIndex availabilityIndex, ServiceExecutor executor) {
+        this.reservationRepository = reservationRepository;
+        this.roomRepository = roomRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.executor = executor;
     }
 
     public List<Reservation> getAllReservations() {
@@ -27,12 +48,68 @@ public class ReservationService {
         return reservations;
     }
 
+    /**
+     * Returns the next page of reservations after the given one (null for the first page),
+     * newest first, optionally limited to one hotel.
+     */
+    public List<Reservation> getReservationsPage(Long hotelId, Reservation after, int pageSize) {
+        return reservationRepository.findPage(hotelId, after, pageSize);
+    }
+
     public List<Reservation> getReservationsByRoomId(Long roomId) {
         return reservationRepository.findByRoomId(roomId);
     }
 
+    /**
+     * Reservations of a hotel that span the given moment. The reservations overlapping that day are cached per hotel
+     * and day; callers get their own copies, with rooms and hotels resolved through their session map.
+     */
     public List<Reservation> getReservationsByHotelIdAndDate(Long hotelId, LocalDateTime date) {
-        return reservationRepository.findByHotelIdAndDate(hotelId, date);
+        LocalDate day = date.toLocalDate();
+        List<Reservation> ofDay = reservationsByHotelAndDay.get(new DayQuery(hotelId, day),
+                () -> reservationRepository.findDetachedByHotelIdAndDay(hotelId, day));
+        // A failed query is not cached, so the next call tries again
+        if (ofDay == null) {
+            return new ArrayList<>();
+        }
+
+        List<Reservation> spanning = new ArrayList<>();
+        for (Reservation reservation : ofDay) {
+            if (!reservation.getStartDate().isAfter(date) && !reservation.getEndDate().isBefore(date)) {
+                spanning.add(reservation);
+            }
+        }
+        return reservationRepository.attach(spanning);
+    }
+
+    /**
+     * Streams the reservations active at the given date to the handler, bypassing the date cache.
+     * Meant for exports, whose results are read once and may be large.
+     */
+    public boolean streamReservationsByHotelIdAndDate(Long hotelId, LocalDateTime date, RowHandler<Reservation> handler)
+            throws IOException {
+        return reservationRepository.streamByHotelIdAndDate(hotelId, date, handler);
+    }
+
+    public boolean streamReservationsByHotelIdAndPeriod(Long hotelId, LocalDateTime start, LocalDateTime end,
+                                                       RowHandler<Reservation> handler) throws IOException {
+        return reservationRepository.streamByHotelIdAndPeriod(hotelId, start, end, handler);
+    }
+
+    /**
+     * Streams the reservations changed or deleted in [from, to); see ReservationRepository.streamChangesBetween.
+     */
+    public boolean streamReservationChanges(LocalDateTime from, LocalDateTime to, RowHandler<ReservationChange> handler)
+            throws IOException {
+        return reservationRepository.streamChangesBetween(from, to, handler);
+    }
+
+    public LocalDateTime getChangeCutoff(int lagSeconds) {
+        return reservationRepository.findChangeCutoff(lagSeconds);
+    }
+
+    public void logCacheStats() {
+        logger.info("Cache {}", reservationsByHotelAndDay.getStats());
     }
 
     public List<Reservation> getReservationsByHotelId(Long hotelId) {
@@ -58,17 +135,6 @@ public class ReservationService {
 
             Room room = roomOpt.get();
 
-            // Check if the room is available for the requested dates
-            List<Reservation> existingReservations = reservationRepository.findByRoomId(room.getId());
-            for (Reservation existingRes : existingReservations) {
-                // If there's any overlap with existing reservations, the room is not available
-                if (!(reservation.getEndDate().isBefore(existingRes.getStartDate()) ||
-                        reservation.getStartDate().isAfter(existingRes.getEndDate()))) {
-                    logger.error("Nu se poate adăuga rezervarea: Camera {} nu este disponibilă în perioada solicitată", room.getRoomNumber());
-                    return false;
-                }
-            }
-
             // Calculate total price
             if (reservation.getTotalPrice() == null || reservation.getTotalPrice() <= 0) {
                 reservation.setRoom(room);
@@ -80,12 +146,17 @@ public class ReservationService {
                 reservation.setPaymentStatus("Pending");
             }
 
-            Long id = reservationRepository.save(reservation);
-            if (id != null) {
-                reservation.setId(id);
-                return true;
+            // The overlap check and the INSERT run in the same transaction, under a lock on the room
+            BookingStatus status = reservationRepository.saveIfAvailable(reservation);
+            if (status == BookingStatus.BOOKED) {
+                evictDateQueries(room.getHotelId(), reservation.getStartDate(), reservation.getEndDate());
             }
-            return false;
+            if (status == BookingStatus.CONFLICT) {
+                logger.error("Nu se poate adăuga rezervarea: Camera {} nu este disponibilă în perioada solicitată", room.getRoomNumber());
+                // The index missed a booking made elsewhere; resynchronize this room
+                availabilityIndex.reloadRoom(room.getId());
+            }
+            return status == BookingStatus.BOOKED;
         } catch (Exception e) {
             logger.error("Eroare la adăugarea rezervării pentru camera cu id-ul: {}", reservation.getRoomId(), e);
             return false;
@@ -111,27 +182,7 @@ public class ReservationService {
                 return false;
             }
 
-            // Check if dates have changed
             Reservation existingRes = existingResOpt.get();
-            if (!existingRes.getStartDate().equals(reservation.getStartDate()) ||
-                    !existingRes.getEndDate().equals(reservation.getEndDate())) {
-
-                // Check for conflicts with other reservations
-                List<Reservation> reservations = reservationRepository.findByRoomId(room.getId());
-                for (Reservation res : reservations) {
-                    // Skip the current reservation being updated
-                    if (res.getId().equals(reservation.getId())) {
-                        continue;
-                    }
-
-                    // If there's any overlap with other reservations, the room is not available
-                    if (!(reservation.getEndDate().isBefore(res.getStartDate()) ||
-                            reservation.getStartDate().isAfter(res.getEndDate()))) {
-                        logger.error("Nu se poate actualiza rezervarea: Camera {} nu este disponibilă în perioada solicitată", room.getRoomNumber());
-                        return false;
-                    }
-                }
-            }
 
             // Update price if room or dates have changed
             if (!existingRes.getRoomId().equals(reservation.getRoomId()) ||
@@ -142,7 +193,18 @@ public class ReservationService {
                 reservation.calculateTotalPrice();
             }
 
-            return reservationRepository.update(reservation);
+            // Conflicts with other reservations are checked inside the UPDATE transaction
+            BookingStatus status = reservationRepository.updateIfAvailable(reservation);
+            if (status == BookingStatus.BOOKED) {
+                // Both the old and the new period change
+                evictDateQueries(hotelIdOf(existingRes), existingRes.getStartDate(), existingRes.getEndDate());
+                evictDateQueries(room.getHotelId(), reservation.getStartDate(), reservation.getEndDate());
+            }
+            if (status == BookingStatus.CONFLICT) {
+                logger.error("Nu se poate actualiza rezervarea: Camera {} nu este disponibilă în perioada solicitată", room.getRoomNumber());
+                availabilityIndex.reloadRoom(room.getId());
+            }
+            return status == BookingStatus.BOOKED;
         } catch (Exception e) {
             logger.error("Eroare la actualizarea rezervării cu id-ul: {}", reservation.getId(), e);
             return false;
@@ -151,10 +213,90 @@ public class ReservationService {
 
     public boolean deleteReservation(Long id) {
         try {
-            return reservationRepository.delete(id);
+            Optional<Reservation> existing = reservationRepository.findById(id);
+            boolean deleted = reservationRepository.delete(id);
+            if (deleted) {
+                if (existing.isPresent()) {
+                    evictDateQueries(hotelIdOf(existing.get()), existing.get().getStartDate(), existing.get().getEndDate());
+                } else {
+                    reservationsByHotelAndDay.invalidateAll();
+                }
+            }
+            return deleted;
         } catch (Exception e) {
             logger.error("Eroare la ștergerea rezervării cu id-ul: {}", id, e);
             return false;
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Evicts the cached days of the hotel that the period touches; all hotels when it is unknown.
+     */
+    private void evictDateQueries(Long hotelId, LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null) {
+            reservationsByHotelAndDay.invalidateAll();
+            return;
+        }
+        LocalDate firstDay = start.toLocalDate();
+        LocalDate lastDay = end.toLocalDate();
+        reservationsByHotelAndDay.invalidateKeysIf(query ->
+                (hotelId == null || hotelId.equals(query.hotelId))
+                        && !query.day.isBefore(firstDay) && !query.day.isAfter(lastDay));
+    }
+
+    private Long hotelIdOf(Reservation reservation) {
+        if (reservation.getRoom() != null && reservation.getRoom().getHotelId() != null) {
+            return reservation.getRoom().getHotelId();
+        }
+        return roomRepository.findById(reservation.getRoomId()).map(Room::getHotelId).orElse(null);
+    }
+
+    private static final class DayQuery {
+        private final Long hotelId;
+        private final LocalDate day;
+
+        DayQuery(Long hotelId, LocalDate day) {
+            this.hotelId = hotelId;
+            this.day = day;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            DayQuery other = (DayQuery) o;
+            return Objects.equals(hotelId, other.hotelId) && Objects.equals(day, other.day);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(hotelId, day);
+        }
+    }
+
+    // Asynchronous variants, run on the service executor
+
+    public CompletableFuture<List<Reservation>> getReservationsPageAsync(Long hotelId, Reservation after, int pageSize) {
+        return executor.submit(() -> getReservationsPage(hotelId, after, pageSize));
+    }
+
+    public CompletableFuture<List<Reservation>> getReservationsByHotelIdAndDateAsync(Long hotelId, LocalDateTime date) {
+        return executor.submit(() -> getReservationsByHotelIdAndDate(hotelId, date));
+    }
+
+    public CompletableFuture<List<Reservation>> getReservationsByCustomerNameAsync(String customerName) {
+        return executor.submit(() -> getReservationsByCustomerName(customerName));
+    }
+
+    public CompletableFuture<Boolean> addReservationAsync(Reservation reservation) {
+        return executor.submit(() -> addReservation(reservation));
+    }
+
+    public CompletableFuture<Boolean> updateReservationAsync(Reservation reservation) {
+        return executor.submit(() -> updateReservation(reservation));
+    }
+
+    public CompletableFuture<Boolean> deleteReservationAsync(Long id) {
+        return executor.submit(() -> deleteReservation(id));
+    }
+}
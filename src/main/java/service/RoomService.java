@@ -2,23 +2,35 @@ package service;
 
 import model.Hotel;
 import model.Room;
+import model.RoomTypeStats;
 import repository.HotelRepository;
+import repository.RoomAvailabilityIndex;
 import repository.RoomRepository;
+import repository.RowHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class RoomService {
     private static final Logger logger = LoggerFactory.getLogger(RoomService.class);
     private final RoomRepository roomRepository;
     private final HotelRepository hotelRepository;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final ServiceExecutor executor;
 
-    public RoomService() {
-        this.roomRepository = new RoomRepository();
-        this.hotelRepository = new HotelRepository();
+    public RoomService(RoomRepository roomRepository, HotelRepository hotelRepository,
+                       RoomAvailabilityIndex availabilityIndex, ServiceExecutor executor) {
+        this.roomRepository = roomRepository;
+        this.hotelRepository = hotelRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.executor = executor;
     }
 
     public List<Room> getAllRooms() {
@@ -37,6 +49,36 @@ public class RoomService {
         return roomRepository.findAvailableRoomsByHotelIdAndDate(hotelId, startDate, endDate);
     }
 
+    public boolean streamAvailableRoomsByHotelIdAndDate(Long hotelId, LocalDateTime startDate, LocalDateTime endDate,
+                                                        RowHandler<Room> handler) throws IOException {
+        return roomRepository.streamAvailableRoomsByHotelIdAndDate(hotelId, startDate, endDate, handler);
+    }
+
+    /**
+     * Keeps the rooms of the hotel that are free over [startDate, endDate] according to the in-memory availability
+     * index, without querying the database. Meant for interactive filtering of an already loaded room list.
+     * If the index could not be loaded, the free rooms are queried from the database instead.
+     */
+    public List<Room> filterAvailableRooms(Long hotelId, List<Room> rooms, LocalDateTime startDate, LocalDateTime endDate) {
+        List<Long> roomIds = new ArrayList<>(rooms.size());
+        for (Room room : rooms) {
+            roomIds.add(room.getId());
+        }
+        Set<Long> free = availabilityIndex.findFreeRooms(roomIds, startDate, endDate);
+        if (free == null) {
+            logger.warn("Indexul de disponibilitate nu este încărcat; camerele libere se caută în baza de date");
+            return getAvailableRoomsByHotelIdAndDate(hotelId, startDate, endDate);
+        }
+
+        List<Room> available = new ArrayList<>();
+        for (Room room : rooms) {
+            if (free.contains(room.getId())) {
+                available.add(room);
+            }
+        }
+        return available;
+    }
+
     public Optional<Room> getRoomById(Long id) {
         return roomRepository.findById(id);
     }
@@ -94,4 +136,43 @@ public class RoomService {
     public List<String> getAllRoomTypes() {
         return roomRepository.findAllRoomTypes();
     }
-}
\ No newline at end of file
+
+    public List<RoomTypeStats> getRoomTypeStats(Long hotelId) {
+        return roomRepository.findRoomTypeStatsByHotelId(hotelId);
+    }
+
+    // Asynchronous variants, run on the service executor
+
+    public CompletableFuture<List<Room>> getRoomsByHotelIdAsync(Long hotelId) {
+        return executor.submit(() -> getRoomsByHotelId(hotelId));
+    }
+
+    public CompletableFuture<List<Room>> getRoomsByHotelIdAndPriceRangeAsync(Long hotelId, Double minPrice, Double maxPrice) {
+        return executor.submit(() -> getRoomsByHotelIdAndPriceRange(hotelId, minPrice, maxPrice));
+    }
+
+    public CompletableFuture<List<Room>> getAvailableRoomsByHotelIdAndDateAsync(Long hotelId, LocalDateTime startDate, LocalDateTime endDate) {
+        return executor.submit(() -> getAvailableRoomsByHotelIdAndDate(hotelId, startDate, endDate));
+    }
+
+    public CompletableFuture<List<Room>> filterAvailableRoomsAsync(Long hotelId, List<Room> rooms, LocalDateTime startDate,
+                                                                   LocalDateTime endDate) {
+        return executor.submit(() -> filterAvailableRooms(hotelId, rooms, startDate, endDate));
+    }
+
+    public CompletableFuture<List<String>> getAllRoomTypesAsync() {
+        return executor.submit(this::getAllRoomTypes);
+    }
+
+    public CompletableFuture<Boolean> addRoomAsync(Room room) {
+        return executor.submit(() -> addRoom(room));
+    }
+
+    public CompletableFuture<Boolean> updateRoomAsync(Room room) {
+        return executor.submit(() -> updateRoom(room));
+    }
+
+    public CompletableFuture<Boolean> deleteRoomAsync(Long id) {
+        return executor.submit(() -> deleteRoom(id));
+    }
+}
@@ -0,0 +1,85 @@
+package service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import repository.IdentityMap;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs service calls off the JavaFX application thread, on a small pool of daemon workers.
+ * The pool is small and fixed rather than a thread per request, since every task holds a pooled connection.
+ * The identity map bound on the submitting thread is bound on the worker for the duration of the task.
+ */
+public class ServiceExecutor {
+    private static final Logger logger = LoggerFactory.getLogger(ServiceExecutor.class);
+
+    private final ExecutorService executor;
+
+    public ServiceExecutor(int threads) {
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, "service-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        this.executor = Executors.newFixedThreadPool(threads, threadFactory);
+    }
+
+    /**
+     * Runs the task on a worker. Cancelling the returned future before the task starts skips it;
+     * a task already running completes, but its result is dropped. The future's settled() stage tells when
+     * the worker is actually done with it.
+     */
+    public <T> Task<T> submit(Supplier<T> task) {
+        Task<T> future = new Task<>();
+        Supplier<T> bound = IdentityMap.propagate(task);
+        try {
+            executor.execute(() -> {
+                try {
+                    if (!future.isDone()) {
+                        future.complete(bound.get());
+                    }
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    future.settled.complete(null);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+            future.settled.complete(null);
+        }
+        return future;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+        try {
+            if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+                logger.warn("Unele operații în desfășurare nu s-au încheiat la oprire");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Result of a submitted task. Cancelling it completes it at once, while a task already running keeps
+     * its worker and its connection until it returns; settled() completes only then.
+     */
+    public static final class Task<T> extends CompletableFuture<T> {
+        private final CompletableFuture<Void> settled = new CompletableFuture<>();
+
+        public CompletableFuture<Void> settled() {
+            return settled;
+        }
+    }
+}
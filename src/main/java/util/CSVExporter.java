@@ -1,76 +1,187 @@
 package util;
 
+import model.HotelReservationTotals;
 import model.Reservation;
+import model.ReservationChange;
 import model.Room;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.Locale;
 
 public class CSVExporter {
     private static final Logger logger = LoggerFactory.getLogger(CSVExporter.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+    private static final DateTimeFormatter CHANGE_TIME_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int BUFFER_SIZE = 64 * 1024;
 
-    public void exportReservationList(List<Reservation> reservations, File file) throws IOException {
-        try (FileWriter fileWriter = new FileWriter(file);
-             CSVPrinter csvPrinter = new CSVPrinter(fileWriter, CSVFormat.DEFAULT
-                     .withHeader("ID", "Room Number", "Hotel", "Customer Name", "Email", "Phone",
-                             "Check-in Date", "Check-out Date", "Total Price", "Payment Status"))) {
-
-            for (Reservation reservation : reservations) {
-                if (reservation.getRoom() != null) {
-                    csvPrinter.printRecord(
-                            reservation.getId(),
-                            reservation.getRoom().getRoomNumber(),
-                            reservation.getRoom().getHotel() != null ? reservation.getRoom().getHotel().getName() : "N/A",
-                            reservation.getCustomerName(),
-                            reservation.getCustomerEmail(),
-                            reservation.getCustomerPhone(),
-                            reservation.getStartDate().format(DATE_FORMATTER),
-                            reservation.getEndDate().format(DATE_FORMATTER),
-                            reservation.getTotalPrice(),
-                            reservation.getPaymentStatus()
-                    );
-                }
+    private static final String[] RESERVATION_HEADER = {"ID", "Room Number", "Hotel", "Customer Name", "Email", "Phone",
+            "Check-in Date", "Check-out Date", "Total Price", "Payment Status"};
+    private static final String[] ROOM_HEADER = {"ID", "Room Number", "Hotel", "Room Type", "Capacity",
+            "Price per Night", "Amenities"};
+    private static final String[] RESERVATION_CHANGE_HEADER = {"Change", "Changed At", "ID", "Room Number", "Hotel",
+            "Customer Name", "Email", "Phone", "Check-in Date", "Check-out Date", "Total Price", "Payment Status"};
+    private static final String[] HOTEL_TOTALS_HEADER = {"Hotel ID", "Hotel", "City", "Reservations",
+            "Paid Reservations", "Total Revenue"};
+
+    /**
+     * Opens a UTF-8 CSV file for reservations written one at a time; the header is on disk when this returns.
+     * Reservations without a room are skipped.
+     */
+    public ExportSink<Reservation> openReservationSink(File file) throws IOException {
+        return new CsvSink<>(file, "reservations", RESERVATION_HEADER, (csvPrinter, reservation) -> {
+            if (reservation.getRoom() == null) {
+                return false;
             }
+            csvPrinter.printRecord(
+                    reservation.getId(),
+                    reservation.getRoom().getRoomNumber(),
+                    reservation.getRoom().getHotel() != null ? reservation.getRoom().getHotel().getName() : "N/A",
+                    reservation.getCustomerName(),
+                    reservation.getCustomerEmail(),
+                    reservation.getCustomerPhone(),
+                    reservation.getStartDate().format(DATE_FORMATTER),
+                    reservation.getEndDate().format(DATE_FORMATTER),
+                    reservation.getTotalPrice(),
+                    reservation.getPaymentStatus()
+            );
+            return true;
+        });
+    }
 
-            csvPrinter.flush();
-            logger.info("CSV export of reservations completed successfully to file: {}", file.getAbsolutePath());
-        } catch (IOException e) {
-            logger.error("Error exporting reservations to CSV: {}", e.getMessage(), e);
-            throw e;
-        }
+    public ExportSink<Room> openRoomSink(File file) throws IOException {
+        return new CsvSink<>(file, "rooms", ROOM_HEADER, (csvPrinter, room) -> {
+            csvPrinter.printRecord(
+                    room.getId(),
+                    room.getRoomNumber(),
+                    room.getHotel() != null ? room.getHotel().getName() : "N/A",
+                    room.getRoomType(),
+                    room.getCapacity(),
+                    room.getPricePerNight(),
+                    room.getAmenities()
+            );
+            return true;
+        });
     }
 
-    public void exportRoomList(List<Room> rooms, File file) throws IOException {
-        try (FileWriter fileWriter = new FileWriter(file);
-             CSVPrinter csvPrinter = new CSVPrinter(fileWriter, CSVFormat.DEFAULT
-                     .withHeader("ID", "Room Number", "Hotel", "Room Type", "Capacity",
-                             "Price per Night", "Amenities"))) {
-
-            for (Room room : rooms) {
-                csvPrinter.printRecord(
-                        room.getId(),
-                        room.getRoomNumber(),
-                        room.getHotel() != null ? room.getHotel().getName() : "N/A",
-                        room.getRoomType(),
-                        room.getCapacity(),
-                        room.getPricePerNight(),
-                        room.getAmenities()
-                );
+    /**
+     * Opens a CSV of reservation changes for the incremental export. A deletion only carries the reservation id.
+     * With append, records are added at the end of the file and the header is only written if the file is empty.
+     */
+    public ExportSink<ReservationChange> openReservationChangeSink(File file, boolean append) throws IOException {
+        return new CsvSink<>(file, "reservation changes", RESERVATION_CHANGE_HEADER, append, (csvPrinter, change) -> {
+            Reservation reservation = change.getReservation();
+            if (reservation == null) {
+                csvPrinter.printRecord(change.getType(), format(change), change.getReservationId());
+                return true;
             }
+            Room room = reservation.getRoom();
+            csvPrinter.printRecord(
+                    change.getType(),
+                    format(change),
+                    reservation.getId(),
+                    room != null ? room.getRoomNumber() : null,
+                    room != null && room.getHotel() != null ? room.getHotel().getName() : null,
+                    reservation.getCustomerName(),
+                    reservation.getCustomerEmail(),
+                    reservation.getCustomerPhone(),
+                    reservation.getStartDate() != null ? reservation.getStartDate().format(DATE_FORMATTER) : null,
+                    reservation.getEndDate() != null ? reservation.getEndDate().format(DATE_FORMATTER) : null,
+                    reservation.getTotalPrice(),
+                    reservation.getPaymentStatus()
+            );
+            return true;
+        });
+    }
+
+    // Full precision, so the downstream import can order two changes made within the same minute
+    private static String format(ReservationChange change) {
+        return change.getChangedAt() != null ? change.getChangedAt().format(CHANGE_TIME_FORMATTER) : null;
+    }
+
+    public ExportSink<HotelReservationTotals> openHotelTotalsSink(File file) throws IOException {
+        return new CsvSink<>(file, "hotel totals", HOTEL_TOTALS_HEADER, (csvPrinter, totals) -> {
+            csvPrinter.printRecord(
+                    totals.getHotelId(),
+                    totals.getHotelName(),
+                    totals.getCity() != null ? totals.getCity() : "N/A",
+                    totals.getReservationCount(),
+                    totals.getPaidCount(),
+                    String.format(Locale.ROOT, "%.2f", totals.getTotalRevenue())
+            );
+            return true;
+        });
+    }
+
+    // Buffered UTF-8 writer straight on the file channel, independent of the platform charset
+    private static Writer openWriter(File file, boolean append) throws IOException {
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        return new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8.newEncoder(), BUFFER_SIZE), BUFFER_SIZE);
+    }
+
+    @FunctionalInterface
+    private interface RecordWriter<T> {
+        /**
+         * Prints the item's record; returns false if the item was skipped.
+         */
+        boolean print(CSVPrinter csvPrinter, T item) throws IOException;
+    }
+
+    private static final class CsvSink<T> implements ExportSink<T> {
+        private final File file;
+        private final String kind;
+        private final CSVPrinter csvPrinter;
+        private final RecordWriter<T> recordWriter;
+        private long count;
+
+        CsvSink(File file, String kind, String[] header, RecordWriter<T> recordWriter) throws IOException {
+            this(file, kind, header, false, recordWriter);
+        }
+
+        CsvSink(File file, String kind, String[] header, boolean append, RecordWriter<T> recordWriter) throws IOException {
+            this.file = file;
+            this.kind = kind;
+            this.recordWriter = recordWriter;
+            boolean continued = append && file.length() > 0;
+            Writer writer = openWriter(file, append);
+            try {
+                this.csvPrinter = new CSVPrinter(writer,
+                        CSVFormat.DEFAULT.builder().setHeader(header).setSkipHeaderRecord(continued).build());
+                csvPrinter.flush();
+            } catch (IOException e) {
+                writer.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(T item) throws IOException {
+            if (recordWriter.print(csvPrinter, item)) {
+                count++;
+            }
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
 
-            csvPrinter.flush();
-            logger.info("CSV export of rooms completed successfully to file: {}", file.getAbsolutePath());
-        } catch (IOException e) {
-            logger.error("Error exporting rooms to CSV: {}", e.getMessage(), e);
-            throw e;
+        @Override
+        public void close() throws IOException {
+            csvPrinter.close(true);
+            logger.info("CSV export wrote {} {} to file: {}", count, kind, file.getAbsolutePath());
         }
     }
-}
\ No newline at end of file
+}
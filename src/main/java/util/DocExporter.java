@@ -2,172 +2,94 @@ package util;
 
 import model.Reservation;
 import model.Room;
-import org.apache.poi.xwpf.usermodel.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
+import java.util.function.Function;
 
 public class DocExporter {
     private static final Logger logger = LoggerFactory.getLogger(DocExporter.class);
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
 
-    public void exportReservationList(List<Reservation> reservations, File file) throws IOException {
-        try (XWPFDocument document = new XWPFDocument();
-             FileOutputStream out = new FileOutputStream(file)) {
-
-            // Add title
-            XWPFParagraph titleParagraph = document.createParagraph();
-            titleParagraph.setAlignment(ParagraphAlignment.CENTER);
-            XWPFRun titleRun = titleParagraph.createRun();
-            titleRun.setText("RAPORT REZERVĂRI");
-            titleRun.setBold(true);
-            titleRun.setFontSize(16);
-
-            // Add date
-            XWPFParagraph dateParagraph = document.createParagraph();
-            dateParagraph.setAlignment(ParagraphAlignment.CENTER);
-            XWPFRun dateRun = dateParagraph.createRun();
-            dateRun.setText("Data raport: " +
-                    LocalDateTime.now().format(DATE_FORMATTER));
-
-            // Add empty paragraph
-            document.createParagraph();
-
-            // Create table
-            XWPFTable table = document.createTable();
-
-            // Create header row
-            XWPFTableRow headerRow = table.getRow(0);
-            headerRow.getCell(0).setText("ID");
-            headerRow.addNewTableCell().setText("Cameră");
-            headerRow.addNewTableCell().setText("Hotel");
-            headerRow.addNewTableCell().setText("Nume Client");
-            headerRow.addNewTableCell().setText("Email");
-            headerRow.addNewTableCell().setText("Telefon");
-            headerRow.addNewTableCell().setText("Check-in");
-            headerRow.addNewTableCell().setText("Check-out");
-            headerRow.addNewTableCell().setText("Preț Total");
-            headerRow.addNewTableCell().setText("Status Plată");
-
-            // Format header row
-            for (XWPFTableCell cell : headerRow.getTableCells()) {
-                cell.setColor("DDDDDD");
-
-                XWPFParagraph paragraph = cell.getParagraphs().get(0);
-                paragraph.setAlignment(ParagraphAlignment.CENTER);
-
-                XWPFRun run = paragraph.getRuns().get(0);
-                run.setBold(true);
-            }
-
-            // Add data rows
-            for (Reservation reservation : reservations) {
-                if (reservation.getRoom() != null) {
-                    XWPFTableRow dataRow = table.createRow();
-                    dataRow.getCell(0).setText(reservation.getId().toString());
-                    dataRow.getCell(1).setText(reservation.getRoom().getRoomNumber());
-                    dataRow.getCell(2).setText(reservation.getRoom().getHotel() != null ?
-                            reservation.getRoom().getHotel().getName() : "N/A");
-                    dataRow.getCell(3).setText(reservation.getCustomerName());
-                    dataRow.getCell(4).setText(reservation.getCustomerEmail());
-                    dataRow.getCell(5).setText(reservation.getCustomerPhone());
-                    dataRow.getCell(6).setText(reservation.getStartDate().format(DATE_FORMATTER));
-                    dataRow.getCell(7).setText(reservation.getEndDate().format(DATE_FORMATTER));
-                    dataRow.getCell(8).setText(reservation.getTotalPrice() != null ?
-                            reservation.getTotalPrice().toString() : "N/A");
-                    dataRow.getCell(9).setText(reservation.getPaymentStatus());
-                }
+    private static final String[] RESERVATION_HEADER = {"ID", "Cameră", "Hotel", "Nume Client", "Email", "Telefon",
+            "Check-in", "Check-out", "Preț Total", "Status Plată"};
+    private static final String[] ROOM_HEADER = {"ID", "Număr Cameră", "Hotel", "Tip Cameră", "Capacitate",
+            "Preț pe Noapte", "Facilități"};
+
+    /**
+     * Opens a reservation report written one row at a time; the footer with the total is added on close.
+     * Reservations without a room are skipped.
+     */
+    public ExportSink<Reservation> openReservationSink(File file) throws IOException {
+        return new DocSink<>(file, "RAPORT REZERVĂRI", RESERVATION_HEADER, "Total rezervări: ", reservation -> {
+            if (reservation.getRoom() == null) {
+                return null;
             }
-
-            // Add footer
-            XWPFParagraph footerParagraph = document.createParagraph();
-            footerParagraph.setAlignment(ParagraphAlignment.CENTER);
-            XWPFRun footerRun = footerParagraph.createRun();
-            footerRun.setText("Total rezervări: " + reservations.size());
-
-            document.write(out);
-            logger.info("DOC export of reservations completed successfully to file: {}", file.getAbsolutePath());
-        } catch (IOException e) {
-            logger.error("Error exporting reservations to DOC: {}", e.getMessage(), e);
-            throw e;
-        }
+            return new String[]{
+                    reservation.getId().toString(),
+                    reservation.getRoom().getRoomNumber(),
+                    reservation.getRoom().getHotel() != null ? reservation.getRoom().getHotel().getName() : "N/A",
+                    reservation.getCustomerName(),
+                    reservation.getCustomerEmail(),
+                    reservation.getCustomerPhone(),
+                    reservation.getStartDate().format(DATE_FORMATTER),
+                    reservation.getEndDate().format(DATE_FORMATTER),
+                    reservation.getTotalPrice() != null ? reservation.getTotalPrice().toString() : "N/A",
+                    reservation.getPaymentStatus()
+            };
+        });
     }
 
-    public void exportRoomList(List<Room> rooms, File file) throws IOException {
-        try (XWPFDocument document = new XWPFDocument();
-             FileOutputStream out = new FileOutputStream(file)) {
-
-            // Add title
-            XWPFParagraph titleParagraph = document.createParagraph();
-            titleParagraph.setAlignment(ParagraphAlignment.CENTER);
-            XWPFRun titleRun = titleParagraph.createRun();
-            titleRun.setText("RAPORT CAMERE DISPONIBILE");
-            titleRun.setBold(true);
-            titleRun.setFontSize(16);
-
-            // Add date
-            XWPFParagraph dateParagraph = document.createParagraph();
-            dateParagraph.setAlignment(ParagraphAlignment.CENTER);
-            XWPFRun dateRun = dateParagraph.createRun();
-            dateRun.setText("Data raport: " +
-                    LocalDateTime.now().format(DATE_FORMATTER));
-
-            // Add empty paragraph
-            document.createParagraph();
-
-            // Create table
-            XWPFTable table = document.createTable();
-
-            // Create header row
-            XWPFTableRow headerRow = table.getRow(0);
-            headerRow.getCell(0).setText("ID");
-            headerRow.addNewTableCell().setText("Număr Cameră");
-            headerRow.addNewTableCell().setText("Hotel");
-            headerRow.addNewTableCell().setText("Tip Cameră");
-            headerRow.addNewTableCell().setText("Capacitate");
-            headerRow.addNewTableCell().setText("Preț pe Noapte");
-            headerRow.addNewTableCell().setText("Facilități");
-
-            // Format header row
-            for (XWPFTableCell cell : headerRow.getTableCells()) {
-                cell.setColor("DDDDDD");
-
-                XWPFParagraph paragraph = cell.getParagraphs().get(0);
-                paragraph.setAlignment(ParagraphAlignment.CENTER);
+    public ExportSink<Room> openRoomSink(File file) throws IOException {
+        return new DocSink<>(file, "RAPORT CAMERE DISPONIBILE", ROOM_HEADER, "Total camere disponibile: ", room ->
+                new String[]{
+                        room.getId().toString(),
+                        room.getRoomNumber(),
+                        room.getHotel() != null ? room.getHotel().getName() : "N/A",
+                        room.getRoomType(),
+                        room.getCapacity() != null ? room.getCapacity().toString() : "N/A",
+                        room.getPricePerNight() != null ? room.getPricePerNight().toString() : "N/A",
+                        room.getAmenities()
+                });
+    }
 
-                XWPFRun run = paragraph.getRuns().get(0);
-                run.setBold(true);
-            }
+    private static final class DocSink<T> implements ExportSink<T> {
+        private final File file;
+        private final String footerLabel;
+        // Returns the cells of an item's row, or null to skip the item
+        private final Function<T, String[]> rowFormatter;
+        private final DocxStreamWriter writer;
+
+        DocSink(File file, String title, String[] header, String footerLabel, Function<T, String[]> rowFormatter)
+                throws IOException {
+            this.file = file;
+            this.footerLabel = footerLabel;
+            this.rowFormatter = rowFormatter;
+            this.writer = new DocxStreamWriter(file, title,
+                    "Data raport: " + LocalDateTime.now().format(DATE_FORMATTER), header);
+        }
 
-            // Add data rows
-            for (Room room : rooms) {
-                XWPFTableRow dataRow = table.createRow();
-                dataRow.getCell(0).setText(room.getId().toString());
-                dataRow.getCell(1).setText(room.getRoomNumber());
-                dataRow.getCell(2).setText(room.getHotel() != null ? room.getHotel().getName() : "N/A");
-                dataRow.getCell(3).setText(room.getRoomType());
-                dataRow.getCell(4).setText(room.getCapacity() != null ? room.getCapacity().toString() : "N/A");
-                dataRow.getCell(5).setText(room.getPricePerNight() != null ? room.getPricePerNight().toString() : "N/A");
-                dataRow.getCell(6).setText(room.getAmenities());
+        @Override
+        public void write(T item) throws IOException {
+            String[] cells = rowFormatter.apply(item);
+            if (cells != null) {
+                writer.writeRow(cells);
             }
+        }
 
-            // Add footer
-            XWPFParagraph footerParagraph = document.createParagraph();
-            footerParagraph.setAlignment(ParagraphAlignment.CENTER);
-            XWPFRun footerRun = footerParagraph.createRun();
-            footerRun.setText("Total camere disponibile: " + rooms.size());
+        @Override
+        public long getCount() {
+            return writer.getRowCount();
+        }
 
-            document.write(out);
-            logger.info("DOC export of rooms completed successfully to file: {}", file.getAbsolutePath());
-        } catch (IOException e) {
-            logger.error("Error exporting rooms to DOC: {}", e.getMessage(), e);
-            throw e;
+        @Override
+        public void close() throws IOException {
+            writer.finish(footerLabel + writer.getRowCount());
+            logger.info("DOC export wrote {} rows to file: {}", writer.getRowCount(), file.getAbsolutePath());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,184 @@
+package util;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Writes a single-table report as a .docx package, streaming word/document.xml one row at a time
+ * instead of building a POI document in memory.
+ * The layout is the one DocExporter used to build with XWPF: a centered bold title, a centered report date,
+ * an empty paragraph, a bordered table with a grey bold header row, and a centered footer after the table.
+ * Package parts other than the document body are fixed and written up front.
+ */
+public final class DocxStreamWriter implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String CONTENT_TYPES = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+            "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">" +
+            "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>" +
+            "<Default Extension=\"xml\" ContentType=\"application/xml\"/>" +
+            "<Override PartName=\"/word/document.xml\" " +
+            "ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/>" +
+            "</Types>";
+
+    private static final String PACKAGE_RELS = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+            "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+            "<Relationship Id=\"rId1\" " +
+            "Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" " +
+            "Target=\"word/document.xml\"/>" +
+            "</Relationships>";
+
+    private static final String DOCUMENT_START = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n" +
+            "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\"><w:body>";
+
+    private static final String DOCUMENT_END = "</w:body></w:document>";
+
+    private static final String BORDER = " w:val=\"single\" w:sz=\"4\" w:space=\"0\" w:color=\"auto\"/>";
+    private static final String TABLE_PROPERTIES = "<w:tblPr><w:tblW w:w=\"0\" w:type=\"auto\"/><w:tblBorders>" +
+            "<w:top" + BORDER + "<w:left" + BORDER + "<w:bottom" + BORDER + "<w:right" + BORDER +
+            "<w:insideH" + BORDER + "<w:insideV" + BORDER +
+            "</w:tblBorders></w:tblPr>";
+
+    private static final String HEADER_CELL_START = "<w:tc><w:tcPr><w:shd w:val=\"clear\" w:color=\"auto\" w:fill=\"DDDDDD\"/></w:tcPr>" +
+            "<w:p><w:pPr><w:jc w:val=\"center\"/></w:pPr><w:r><w:rPr><w:b/></w:rPr>";
+
+    private final ZipOutputStream zip;
+    private final Writer document;
+    private long rowCount;
+    private boolean finished;
+
+    /**
+     * Creates the file and writes everything up to and including the table's header row.
+     */
+    public DocxStreamWriter(File file, String title, String subtitle, String... header) throws IOException {
+        OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()), BUFFER_SIZE);
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        // Closing this writer would close the zip stream, so it is only flushed until finish()
+        this.document = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), BUFFER_SIZE);
+        try {
+            writeEntry("[Content_Types].xml", CONTENT_TYPES);
+            writeEntry("_rels/.rels", PACKAGE_RELS);
+            zip.putNextEntry(new ZipEntry("word/document.xml"));
+            writeStart(title, subtitle, header);
+        } catch (IOException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Appends one table row; null cells are left empty.
+     */
+    public void writeRow(String... cells) throws IOException {
+        document.write("<w:tr>");
+        for (String cell : cells) {
+            if (cell == null) {
+                document.write("<w:tc><w:p/></w:tc>");
+            } else {
+                document.write("<w:tc><w:p><w:r>");
+                writeText(cell);
+                document.write("</w:r></w:p></w:tc>");
+            }
+        }
+        document.write("</w:tr>");
+        rowCount++;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Closes the table, adds the footer paragraph and completes the package.
+     */
+    public void finish(String footer) throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            document.write("</w:tbl>");
+            if (footer != null) {
+                writeCenteredParagraph(footer);
+            }
+            document.write(DOCUMENT_END);
+            document.flush();
+            zip.closeEntry();
+        } finally {
+            zip.close();
+        }
+    }
+
+    /**
+     * Completes the package without a footer if finish() was not called, so the file is still a valid document.
+     */
+    @Override
+    public void close() throws IOException {
+        finish(null);
+    }
+
+    private void writeStart(String title, String subtitle, String[] header) throws IOException {
+        document.write(DOCUMENT_START);
+        document.write("<w:p><w:pPr><w:jc w:val=\"center\"/></w:pPr><w:r><w:rPr><w:b/><w:sz w:val=\"32\"/></w:rPr>");
+        writeText(title);
+        document.write("</w:r></w:p>");
+        writeCenteredParagraph(subtitle);
+        document.write("<w:p/>");
+
+        document.write("<w:tbl>");
+        document.write(TABLE_PROPERTIES);
+        document.write("<w:tblGrid>");
+        for (int i = 0; i < header.length; i++) {
+            document.write("<w:gridCol/>");
+        }
+        document.write("</w:tblGrid><w:tr>");
+        for (String cell : header) {
+            document.write(HEADER_CELL_START);
+            writeText(cell);
+            document.write("</w:r></w:p></w:tc>");
+        }
+        document.write("</w:tr>");
+    }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private void writeCenteredParagraph(String text) throws IOException {
+        document.write("<w:p><w:pPr><w:jc w:val=\"center\"/></w:pPr><w:r>");
+        writeText(text);
+        document.write("</w:r></w:p>");
+    }
+
+    private void writeText(String text) throws IOException {
+        document.write("<w:t xml:space=\"preserve\">");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '&') {
+                document.write("&amp;");
+            } else if (c == '<') {
+                document.write("&lt;");
+            } else if (c == '>') {
+                document.write("&gt;");
+            } else if (c == '"') {
+                document.write("&quot;");
+            } else if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                // Other control characters are not allowed in XML 1.0 and are dropped
+                document.write(c);
+            }
+        }
+        document.write("</w:t>");
+    }
+}
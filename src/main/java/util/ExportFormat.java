@@ -0,0 +1,31 @@
+package util;
+
+/**
+ * File formats a report can be exported to, with the extension of their files.
+ */
+public enum ExportFormat {
+    CSV("csv", true),
+    DOCX("docx", true),
+    JSON("json", true),
+    // The workbook is only written to its file when the sink is closed
+    XLSX("xlsx", false);
+
+    private final String extension;
+    private final boolean streaming;
+
+    ExportFormat(String extension, boolean streaming) {
+        this.extension = extension;
+        this.streaming = streaming;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * Whether the file grows as rows are written, so its size shows the progress of the export.
+     */
+    public boolean isStreaming() {
+        return streaming;
+    }
+}
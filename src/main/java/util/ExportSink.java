@@ -0,0 +1,25 @@
+package util;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Destination of a streaming export: items are written one at a time, as they are read,
+ * and the file is complete once the sink is closed.
+ */
+public interface ExportSink<T> extends Closeable {
+    void write(T item) throws IOException;
+
+    /**
+     * Number of items written so far.
+     */
+    long getCount();
+
+    /**
+     * Releases the sink after a failed or cancelled export, whose file is about to be deleted.
+     * Sinks that only write their file on close skip writing it.
+     */
+    default void abort() throws IOException {
+        close();
+    }
+}
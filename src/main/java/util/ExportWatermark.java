@@ -0,0 +1,61 @@
+package util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.Properties;
+
+/**
+ * High-water mark of an incremental export, kept next to its target file as "&lt;target&gt;.watermark".
+ * Everything changed before the mark has already been exported to the target.
+ */
+public final class ExportWatermark {
+    private static final String SUFFIX = ".watermark";
+    private static final String EXPORTED_BEFORE = "exportedBefore";
+
+    private ExportWatermark() {
+    }
+
+    public static File fileFor(File target) {
+        return new File(target.getAbsoluteFile().getParentFile(), target.getName() + SUFFIX);
+    }
+
+    /**
+     * Returns null if nothing was exported to this target yet.
+     */
+    public static LocalDateTime read(File target) throws IOException {
+        File file = fileFor(target);
+        if (!file.exists()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+            properties.load(reader);
+        }
+        String value = properties.getProperty(EXPORTED_BEFORE);
+        if (value == null) {
+            throw new IOException("Fișier watermark invalid: " + file.getAbsolutePath());
+        }
+        return LocalDateTime.parse(value);
+    }
+
+    /**
+     * Replaces the mark atomically, so a crash leaves either the old mark or the new one.
+     */
+    public static void write(File target, LocalDateTime exportedBefore) throws IOException {
+        Path path = fileFor(target).toPath();
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        Properties properties = new Properties();
+        properties.setProperty(EXPORTED_BEFORE, exportedBefore.toString());
+        try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            properties.store(writer, "Export incremental rezervări: " + target.getName());
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
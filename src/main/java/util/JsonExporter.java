@@ -0,0 +1,169 @@
+package util;
+
+import model.Reservation;
+import model.Room;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Predicate;
+
+/**
+ * Writes reports as a UTF-8 JSON array with one object per row, streamed like the CSV and DOCX exports.
+ */
+public class JsonExporter {
+    private static final Logger logger = LoggerFactory.getLogger(JsonExporter.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Reservations without a room are skipped.
+     */
+    public ExportSink<Reservation> openReservationSink(File file) throws IOException {
+        return new JsonSink<>(file, "reservations", reservation -> reservation.getRoom() != null, (json, reservation) ->
+            json.field("id", reservation.getId())
+                    .field("roomNumber", reservation.getRoom().getRoomNumber())
+                    .field("hotel", reservation.getRoom().getHotel() != null ? reservation.getRoom().getHotel().getName() : null)
+                    .field("customerName", reservation.getCustomerName())
+                    .field("email", reservation.getCustomerEmail())
+                    .field("phone", reservation.getCustomerPhone())
+                    .field("checkIn", format(reservation.getStartDate()))
+                    .field("checkOut", format(reservation.getEndDate()))
+                    .field("totalPrice", reservation.getTotalPrice())
+                    .field("paymentStatus", reservation.getPaymentStatus()));
+    }
+
+    public ExportSink<Room> openRoomSink(File file) throws IOException {
+        return new JsonSink<>(file, "rooms", room -> true, (json, room) ->
+            json.field("id", room.getId())
+                    .field("roomNumber", room.getRoomNumber())
+                    .field("hotel", room.getHotel() != null ? room.getHotel().getName() : null)
+                    .field("roomType", room.getRoomType())
+                    .field("capacity", room.getCapacity())
+                    .field("pricePerNight", room.getPricePerNight())
+                    .field("amenities", room.getAmenities()));
+    }
+
+    private static String format(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.format(DATE_FORMATTER) : null;
+    }
+
+    @FunctionalInterface
+    private interface ObjectWriter<T> {
+        void write(JsonObject json, T item) throws IOException;
+    }
+
+    /**
+     * Writes the fields of one object; strings are escaped, numbers written as they are, nulls as null.
+     */
+    private static final class JsonObject {
+        private final Writer writer;
+        private boolean first;
+
+        JsonObject(Writer writer) {
+            this.writer = writer;
+        }
+
+        void start() {
+            first = true;
+        }
+
+        JsonObject field(String name, Object value) throws IOException {
+            writer.write(first ? "{" : ",");
+            first = false;
+            writeString(name);
+            writer.write(':');
+            if (value == null) {
+                writer.write("null");
+            } else if (value instanceof Number) {
+                writer.write(value.toString());
+            } else {
+                writeString(value.toString());
+            }
+            return this;
+        }
+
+        void end() throws IOException {
+            writer.write(first ? "{}" : "}");
+        }
+
+        private void writeString(String value) throws IOException {
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"' || c == '\\') {
+                    writer.write('\\');
+                    writer.write(c);
+                } else if (c == '\n') {
+                    writer.write("\\n");
+                } else if (c == '\r') {
+                    writer.write("\\r");
+                } else if (c == '\t') {
+                    writer.write("\\t");
+                } else if (c < 0x20) {
+                    writer.write(String.format("\\u%04x", (int) c));
+                } else {
+                    writer.write(c);
+                }
+            }
+            writer.write('"');
+        }
+    }
+
+    private static final class JsonSink<T> implements ExportSink<T> {
+        private final File file;
+        private final String kind;
+        private final Writer writer;
+        private final JsonObject json;
+        // Items it rejects are skipped
+        private final Predicate<T> filter;
+        private final ObjectWriter<T> objectWriter;
+        private long count;
+
+        JsonSink(File file, String kind, Predicate<T> filter, ObjectWriter<T> objectWriter) throws IOException {
+            this.file = file;
+            this.kind = kind;
+            this.filter = filter;
+            this.objectWriter = objectWriter;
+            this.writer = new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file.toPath()),
+                    StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.json = new JsonObject(writer);
+            writer.write('[');
+        }
+
+        @Override
+        public void write(T item) throws IOException {
+            if (!filter.test(item)) {
+                return;
+            }
+            writer.write(count > 0 ? ",\n" : "\n");
+            json.start();
+            objectWriter.write(json, item);
+            json.end();
+            count++;
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                writer.write("\n]\n");
+            } finally {
+                writer.close();
+            }
+            logger.info("JSON export wrote {} {} to file: {}", count, kind, file.getAbsolutePath());
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package util;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes every item to several sinks, so one pass over a result can produce the same report in several formats.
+ */
+public class TeeSink<T> implements ExportSink<T> {
+    private final List<ExportSink<T>> sinks;
+
+    public TeeSink(List<ExportSink<T>> sinks) {
+        this.sinks = List.copyOf(sinks);
+    }
+
+    @Override
+    public void write(T item) throws IOException {
+        for (ExportSink<T> sink : sinks) {
+            sink.write(item);
+        }
+    }
+
+    /**
+     * The sinks may skip different items; this is the largest of their counts.
+     */
+    @Override
+    public long getCount() {
+        long count = 0;
+        for (ExportSink<T> sink : sinks) {
+            count = Math.max(count, sink.getCount());
+        }
+        return count;
+    }
+
+    /**
+     * Closes every sink, even if closing one of them fails; the first failure is rethrown.
+     */
+    @Override
+    public void close() throws IOException {
+        forEachSink(ExportSink::close);
+    }
+
+    /**
+     * Aborts every sink, like close.
+     */
+    @Override
+    public void abort() throws IOException {
+        forEachSink(ExportSink::abort);
+    }
+
+    private void forEachSink(SinkAction<T> action) throws IOException {
+        IOException failure = null;
+        for (ExportSink<T> sink : sinks) {
+            try {
+                action.apply(sink);
+            } catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    @FunctionalInterface
+    private interface SinkAction<T> {
+        void apply(ExportSink<T> sink) throws IOException;
+    }
+}
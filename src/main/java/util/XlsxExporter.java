@@ -0,0 +1,181 @@
+package util;
+
+import model.Reservation;
+import model.Room;
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.FillPatternType;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.IndexedColors;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes reports as .xlsx through POI's streaming SXSSF model: only a small window of rows is kept in memory,
+ * older rows are flushed to a temporary file as new ones are added.
+ * A sheet that reaches the format's row limit is continued on a new one.
+ */
+public class XlsxExporter {
+    private static final Logger logger = LoggerFactory.getLogger(XlsxExporter.class);
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd-MM-yyyy HH:mm");
+    private static final int ROW_WINDOW = 100;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final String[] RESERVATION_HEADER = {"ID", "Cameră", "Hotel", "Nume Client", "Email", "Telefon",
+            "Check-in", "Check-out", "Preț Total", "Status Plată"};
+    private static final String[] ROOM_HEADER = {"ID", "Număr Cameră", "Hotel", "Tip Cameră", "Capacitate",
+            "Preț pe Noapte", "Facilități"};
+
+    /**
+     * Reservations without a room are skipped.
+     */
+    public ExportSink<Reservation> openReservationSink(File file) throws IOException {
+        return new XlsxSink<>(file, "Rezervări", RESERVATION_HEADER, (row, reservation) -> {
+            if (reservation.getRoom() == null) {
+                return false;
+            }
+            setNumber(row, 0, reservation.getId());
+            setText(row, 1, reservation.getRoom().getRoomNumber());
+            setText(row, 2, reservation.getRoom().getHotel() != null ? reservation.getRoom().getHotel().getName() : "N/A");
+            setText(row, 3, reservation.getCustomerName());
+            setText(row, 4, reservation.getCustomerEmail());
+            setText(row, 5, reservation.getCustomerPhone());
+            setText(row, 6, reservation.getStartDate().format(DATE_FORMATTER));
+            setText(row, 7, reservation.getEndDate().format(DATE_FORMATTER));
+            setNumber(row, 8, reservation.getTotalPrice());
+            setText(row, 9, reservation.getPaymentStatus());
+            return true;
+        });
+    }
+
+    public ExportSink<Room> openRoomSink(File file) throws IOException {
+        return new XlsxSink<>(file, "Camere disponibile", ROOM_HEADER, (row, room) -> {
+            setNumber(row, 0, room.getId());
+            setText(row, 1, room.getRoomNumber());
+            setText(row, 2, room.getHotel() != null ? room.getHotel().getName() : "N/A");
+            setText(row, 3, room.getRoomType());
+            setNumber(row, 4, room.getCapacity());
+            setNumber(row, 5, room.getPricePerNight());
+            setText(row, 6, room.getAmenities());
+            return true;
+        });
+    }
+
+    private static void setText(Row row, int column, String value) {
+        if (value != null) {
+            row.createCell(column).setCellValue(value);
+        }
+    }
+
+    private static void setNumber(Row row, int column, Number value) {
+        if (value != null) {
+            row.createCell(column).setCellValue(value.doubleValue());
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowWriter<T> {
+        /**
+         * Fills the row with the item's cells; returns false if the item was skipped.
+         */
+        boolean write(Row row, T item);
+    }
+
+    private static final class XlsxSink<T> implements ExportSink<T> {
+        private static final int MAX_ROWS = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+        private final File file;
+        private final String sheetName;
+        private final String[] header;
+        private final RowWriter<T> rowWriter;
+        private final SXSSFWorkbook workbook;
+        private final CellStyle headerStyle;
+        private SXSSFSheet sheet;
+        private int sheetCount;
+        private int nextRow;
+        private long count;
+
+        XlsxSink(File file, String sheetName, String[] header, RowWriter<T> rowWriter) {
+            this.file = file;
+            this.sheetName = sheetName;
+            this.header = header;
+            this.rowWriter = rowWriter;
+            this.workbook = new SXSSFWorkbook(ROW_WINDOW);
+            // The flushed rows wait in temp files until the workbook is written
+            this.workbook.setCompressTempFiles(true);
+
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            this.headerStyle = workbook.createCellStyle();
+            headerStyle.setFont(bold);
+            headerStyle.setFillForegroundColor(IndexedColors.GREY_25_PERCENT.getIndex());
+            headerStyle.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+            startSheet();
+        }
+
+        @Override
+        public void write(T item) {
+            if (nextRow == MAX_ROWS) {
+                startSheet();
+            }
+            Row row = sheet.createRow(nextRow);
+            if (rowWriter.write(row, item)) {
+                nextRow++;
+                count++;
+            } else {
+                sheet.removeRow(row);
+            }
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file.toPath()), BUFFER_SIZE)) {
+                workbook.write(out);
+            } finally {
+                workbook.dispose();
+                workbook.close();
+            }
+            logger.info("XLSX export wrote {} rows to file: {}", count, file.getAbsolutePath());
+        }
+
+        /**
+         * Drops the workbook and its temp files without serializing it.
+         */
+        @Override
+        public void abort() throws IOException {
+            try {
+                workbook.dispose();
+            } finally {
+                workbook.close();
+            }
+        }
+
+        private void startSheet() {
+            sheetCount++;
+            sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + " " + sheetCount);
+            Row headerRow = sheet.createRow(0);
+            for (int i = 0; i < header.length; i++) {
+                Cell cell = headerRow.createCell(i);
+                cell.setCellValue(header[i]);
+                cell.setCellStyle(headerStyle);
+            }
+            nextRow = 1;
+        }
+    }
+}
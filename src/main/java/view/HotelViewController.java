@@ -7,15 +7,13 @@ import javafx.util.StringConverter;
 import model.Chain;
 import model.Hotel;
 import model.Location;
-import service.LocationService;
+import org.example.tema2ps.AppContext;
 import viewmodel.HotelViewModel;
 
-import java.util.List;
-
-public class HotelViewController {
+public class HotelViewController implements RetainedView {
 
+    private final AppContext context;
     private HotelViewModel viewModel;
-    private LocationService locationService;
 
     @FXML
     private ComboBox<Chain> chainComboBox;
@@ -77,10 +75,13 @@ public class HotelViewController {
     @FXML
     private TableColumn<Hotel, String> chainColumn;
 
+    public HotelViewController(AppContext context) {
+        this.context = context;
+    }
+
     @FXML
     private void initialize() {
-        viewModel = new HotelViewModel();
-        locationService = new LocationService();
+        viewModel = context.createHotelViewModel();
 
         // Setup bindings for form fields
         nameTextField.textProperty().bindBidirectional(viewModel.nameProperty());
@@ -90,7 +91,7 @@ public class HotelViewController {
         statusLabel.textProperty().bind(viewModel.statusMessageProperty());
 
         // Setup location ComboBox
-        loadLocations();
+        locationComboBox.setItems(viewModel.getLocations());
         locationComboBox.setConverter(new StringConverter<Location>() {
             @Override
             public String toString(Location location) {
@@ -194,10 +195,11 @@ public class HotelViewController {
         });
 
         // Setup action bindings pentru butoane
-        saveButton.disableProperty().bind(viewModel.saveButtonDisabledProperty());
+        // A save or delete still running must not be submitted again
+        saveButton.disableProperty().bind(viewModel.saveButtonDisabledProperty().or(viewModel.busyProperty()));
         saveButton.onActionProperty().bind(viewModel.saveActionProperty());
 
-        deleteButton.disableProperty().bind(viewModel.selectedHotelProperty().isNull());
+        deleteButton.disableProperty().bind(viewModel.selectedHotelProperty().isNull().or(viewModel.busyProperty()));
         deleteButton.onActionProperty().bind(viewModel.deleteActionProperty());
 
         clearButton.onActionProperty().bind(viewModel.clearActionProperty());
@@ -207,9 +209,8 @@ public class HotelViewController {
         resetButton.onActionProperty().bind(viewModel.resetActionProperty());
     }
 
-    private void loadLocations() {
-        List<Location> locations = locationService.getAllLocations();
-        locationComboBox.getItems().clear();
-        locationComboBox.getItems().addAll(locations);
+    @Override
+    public void onViewShown() {
+        viewModel.refresh();
     }
 }
\ No newline at end of file
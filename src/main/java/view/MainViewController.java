@@ -1,15 +1,32 @@
 package view;
 
+import javafx.application.Platform;
 import javafx.fxml.FXML;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.layout.StackPane;
+import org.example.tema2ps.AppContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class MainViewController {
+    private static final Logger logger = LoggerFactory.getLogger(MainViewController.class);
+    private static final List<String> VIEW_PATHS = Arrays.asList(
+            "/fxml/hotel.fxml", "/fxml/room.fxml", "/fxml/reservation.fxml", "/fxml/report.fxml");
+    // The remaining views are built one per FX pulse once the window is up; -Dviews.preload=false turns this off
+    private static final boolean PRELOAD_VIEWS = Boolean.parseBoolean(System.getProperty("views.preload", "true"));
+
+    private final AppContext context;
+    // Each view is loaded once and kept, together with its controller, for the lifetime of the window
+    private final Map<String, LoadedView> views = new HashMap<>();
 
     @FXML
     private Label titleLabel;
@@ -32,10 +49,18 @@ public class MainViewController {
     @FXML
     private Label statusLabel;
 
+    public MainViewController(AppContext context) {
+        this.context = context;
+    }
+
     @FXML
     private void initialize() {
         // Initialize with hotel view on startup
         switchToHotelView();
+
+        if (PRELOAD_VIEWS) {
+            Platform.runLater(this::preloadNextView);
+        }
     }
 
     @FXML
@@ -64,13 +89,55 @@ public class MainViewController {
 
     private void loadView(String fxmlPath) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
-            Parent view = loader.load();
-            contentPane.getChildren().clear();
-            contentPane.getChildren().add(view);
+            LoadedView view = views.get(fxmlPath);
+            boolean retained = view != null;
+            if (!retained) {
+                view = buildView(fxmlPath);
+            }
+            contentPane.getChildren().setAll(view.root);
+            // Refresh once the view is back in the scene
+            if (retained && view.controller instanceof RetainedView) {
+                ((RetainedView) view.controller).onViewShown();
+            }
         } catch (IOException e) {
             statusLabel.setText("Eroare la încărcarea interfeței: " + e.getMessage());
             e.printStackTrace();
         }
     }
-}
\ No newline at end of file
+
+    private LoadedView buildView(String fxmlPath) throws IOException {
+        FXMLLoader loader = new FXMLLoader(getClass().getResource(fxmlPath));
+        loader.setControllerFactory(context::createController);
+        Parent root = loader.load();
+        LoadedView view = new LoadedView(root, loader.getController());
+        views.put(fxmlPath, view);
+        return view;
+    }
+
+    // Builds the first view not loaded yet, then yields to pending UI events before building the next one
+    private void preloadNextView() {
+        for (String fxmlPath : VIEW_PATHS) {
+            if (!views.containsKey(fxmlPath)) {
+                try {
+                    buildView(fxmlPath);
+                } catch (IOException e) {
+                    // Not fatal: the view is loaded again, and the error reported, when it is opened
+                    logger.warn("Nu s-a putut preîncărca vizualizarea {}", fxmlPath, e);
+                    return;
+                }
+                Platform.runLater(this::preloadNextView);
+                return;
+            }
+        }
+    }
+
+    private static final class LoadedView {
+        private final Parent root;
+        private final Object controller;
+
+        LoadedView(Parent root, Object controller) {
+            this.root = root;
+            this.controller = controller;
+        }
+    }
+}
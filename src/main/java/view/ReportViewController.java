@@ -1,25 +1,29 @@
 package view;
 
 import javafx.application.Platform;
+import javafx.beans.binding.BooleanBinding;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import javafx.util.StringConverter;
-import model.Hotel;
+import model.Chain;
+import model.HotelSummary;
+import org.example.tema2ps.AppContext;
 import viewmodel.ReportViewModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ReportViewController {
+public class ReportViewController implements RetainedView {
     private static final Logger logger = LoggerFactory.getLogger(ReportViewController.class);
 
+    private final AppContext context;
     private ReportViewModel viewModel;
 
     @FXML
-    private ComboBox<Hotel> hotelReservationsComboBox;
+    private ComboBox<HotelSummary> hotelReservationsComboBox;
 
     @FXML
-    private ComboBox<Hotel> hotelRoomsComboBox;
+    private ComboBox<HotelSummary> hotelRoomsComboBox;
 
     @FXML
     private DatePicker reservationDatePicker;
@@ -42,15 +46,61 @@ public class ReportViewController {
     @FXML
     private Button exportRoomsDocButton;
 
+    @FXML
+    private Button exportReservationsSelectedButton;
+
+    @FXML
+    private Button exportRoomsSelectedButton;
+
+    @FXML
+    private CheckBox csvFormatCheckBox;
+
+    @FXML
+    private CheckBox docxFormatCheckBox;
+
+    @FXML
+    private CheckBox jsonFormatCheckBox;
+
+    @FXML
+    private CheckBox xlsxFormatCheckBox;
+
+    @FXML
+    private ComboBox<Chain> bundleChainComboBox;
+
+    @FXML
+    private CheckBox allHotelsCheckBox;
+
+    @FXML
+    private DatePicker bundleStartDatePicker;
+
+    @FXML
+    private DatePicker bundleEndDatePicker;
+
+    @FXML
+    private Button exportBundleButton;
+
+    @FXML
+    private CheckBox rotateChangesCheckBox;
+
+    @FXML
+    private Button exportChangesButton;
+
+    @FXML
+    private Button cancelExportsButton;
+
     @FXML
     private Label statusLabel;
 
     @FXML
     private TextArea instructionsTextArea;
 
+    public ReportViewController(AppContext context) {
+        this.context = context;
+    }
+
     @FXML
     private void initialize() {
-        viewModel = new ReportViewModel();
+        viewModel = context.createReportViewModel();
         logger.info("Inițializare ReportViewController");
 
         // Setup bindings for form fields
@@ -60,14 +110,14 @@ public class ReportViewController {
         statusLabel.textProperty().bind(viewModel.statusMessageProperty());
 
         // Setup hotel combo boxes with common converter
-        StringConverter<Hotel> hotelConverter = new StringConverter<Hotel>() {
+        StringConverter<HotelSummary> hotelConverter = new StringConverter<HotelSummary>() {
             @Override
-            public String toString(Hotel hotel) {
+            public String toString(HotelSummary hotel) {
                 return hotel == null ? "" : hotel.getName();
             }
 
             @Override
-            public Hotel fromString(String string) {
+            public HotelSummary fromString(String string) {
                 return null; // Not needed for combo box
             }
         };
@@ -118,12 +168,74 @@ public class ReportViewController {
         );
         exportRoomsDocButton.onActionProperty().bind(viewModel.exportRoomsDocActionProperty());
 
+        // Several formats from one query
+        csvFormatCheckBox.selectedProperty().bindBidirectional(viewModel.csvSelectedProperty());
+        docxFormatCheckBox.selectedProperty().bindBidirectional(viewModel.docxSelectedProperty());
+        jsonFormatCheckBox.selectedProperty().bindBidirectional(viewModel.jsonSelectedProperty());
+        xlsxFormatCheckBox.selectedProperty().bindBidirectional(viewModel.xlsxSelectedProperty());
+        BooleanBinding noFormatSelected = viewModel.csvSelectedProperty().or(viewModel.docxSelectedProperty())
+                .or(viewModel.jsonSelectedProperty()).or(viewModel.xlsxSelectedProperty()).not();
+
+        exportReservationsSelectedButton.disableProperty().bind(
+                viewModel.selectedHotelProperty().isNull().or(viewModel.reportDateProperty().isNull())
+                        .or(noFormatSelected)
+        );
+        exportReservationsSelectedButton.onActionProperty().bind(viewModel.exportReservationsSelectedActionProperty());
+
+        exportRoomsSelectedButton.disableProperty().bind(
+                viewModel.selectedHotelProperty().isNull()
+                        .or(viewModel.startDateProperty().isNull())
+                        .or(viewModel.endDateProperty().isNull())
+                        .or(noFormatSelected)
+        );
+        exportRoomsSelectedButton.onActionProperty().bind(viewModel.exportRoomsSelectedActionProperty());
+
+        // Chain report bundle
+        bundleChainComboBox.setItems(viewModel.getChains());
+        bundleChainComboBox.valueProperty().bindBidirectional(viewModel.selectedChainProperty());
+        bundleChainComboBox.setConverter(new StringConverter<Chain>() {
+            @Override
+            public String toString(Chain chain) {
+                return chain == null ? "" : chain.getName();
+            }
+
+            @Override
+            public Chain fromString(String string) {
+                return null; // Not needed for combo box
+            }
+        });
+        bundleChainComboBox.disableProperty().bind(viewModel.allHotelsProperty());
+        allHotelsCheckBox.selectedProperty().bindBidirectional(viewModel.allHotelsProperty());
+        bundleStartDatePicker.valueProperty().bindBidirectional(viewModel.bundleStartDateProperty());
+        bundleEndDatePicker.valueProperty().bindBidirectional(viewModel.bundleEndDateProperty());
+
+        exportBundleButton.disableProperty().bind(
+                viewModel.selectedChainProperty().isNull().and(viewModel.allHotelsProperty().not())
+                        .or(viewModel.bundleStartDateProperty().isNull())
+                        .or(viewModel.bundleEndDateProperty().isNull())
+        );
+        exportBundleButton.onActionProperty().bind(viewModel.exportBundleActionProperty());
+
+        // Incremental reservation export
+        rotateChangesCheckBox.selectedProperty().bindBidirectional(viewModel.rotateChangesFileProperty());
+        exportChangesButton.onActionProperty().bind(viewModel.exportChangesActionProperty());
+
+        cancelExportsButton.disableProperty().bind(viewModel.activeExportsProperty().isEqualTo(0));
+        cancelExportsButton.onActionProperty().bind(viewModel.cancelExportsActionProperty());
+
         // Important: Add a more reliable way to set the stage
         Platform.runLater(this::setStageInViewModel);
 
         logger.info("Inițializare ReportViewController finalizată");
     }
 
+    @Override
+    public void onViewShown() {
+        // A preloaded view had no window when it was initialized
+        setStageInViewModel();
+        viewModel.refresh();
+    }
+
     /**
      * Method to set the stage in the viewModel
      * This will be called after the scene is fully initialized
@@ -1,12 +1,15 @@
 package view;
 
 import javafx.fxml.FXML;
+import javafx.geometry.Orientation;
+import javafx.scene.Node;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.util.StringConverter;
-import model.Hotel;
+import model.HotelSummary;
 import model.Reservation;
 import model.Room;
+import org.example.tema2ps.AppContext;
 import viewmodel.ReservationViewModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,13 +17,14 @@ import org.slf4j.LoggerFactory;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 
-public class ReservationViewController {
+public class ReservationViewController implements RetainedView {
     private static final Logger logger = LoggerFactory.getLogger(ReservationViewController.class);
 
+    private final AppContext context;
     private ReservationViewModel viewModel;
 
     @FXML
-    private ComboBox<Hotel> hotelComboBox;
+    private ComboBox<HotelSummary> hotelComboBox;
 
     @FXML
     private ComboBox<Room> roomComboBox;
@@ -100,9 +104,13 @@ public class ReservationViewController {
     @FXML
     private TableColumn<Reservation, String> paymentStatusColumn;
 
+    public ReservationViewController(AppContext context) {
+        this.context = context;
+    }
+
     @FXML
     private void initialize() {
-        viewModel = new ReservationViewModel();
+        viewModel = context.createReservationViewModel();
         logger.info("Inițializare ReservationViewController");
 
         // Setup bindings for form fields
@@ -123,10 +131,10 @@ public class ReservationViewController {
         searchCustomerTextField.textProperty().bindBidirectional(viewModel.searchCustomerNameProperty());
 
         // Setup action bindings pentru butoane
-        saveButton.disableProperty().bind(viewModel.saveButtonDisabledProperty());
+        saveButton.disableProperty().bind(viewModel.saveButtonDisabledProperty().or(viewModel.busyProperty()));
         saveButton.onActionProperty().bind(viewModel.saveActionProperty());
 
-        deleteButton.disableProperty().bind(viewModel.selectedReservationProperty().isNull());
+        deleteButton.disableProperty().bind(viewModel.selectedReservationProperty().isNull().or(viewModel.busyProperty()));
         deleteButton.onActionProperty().bind(viewModel.deleteActionProperty());
 
         clearButton.onActionProperty().bind(viewModel.clearActionProperty());
@@ -192,6 +200,20 @@ public class ReservationViewController {
         reservationTableView.setItems(viewModel.getReservations());
         logger.info("Număr rezervări în tabel: {}", viewModel.getReservations().size());
 
+        // Load further pages as the table is scrolled near its end; the scroll bar exists once the skin is created
+        reservationTableView.skinProperty().addListener((obs, oldSkin, newSkin) -> {
+            for (Node node : reservationTableView.lookupAll(".scroll-bar")) {
+                if (node instanceof ScrollBar && ((ScrollBar) node).getOrientation() == Orientation.VERTICAL) {
+                    ScrollBar scrollBar = (ScrollBar) node;
+                    scrollBar.valueProperty().addListener((valueObs, oldValue, newValue) -> {
+                        if (newValue.doubleValue() >= scrollBar.getMax() * 0.9) {
+                            viewModel.loadNextReservationPage();
+                        }
+                    });
+                }
+            }
+        });
+
         // Setup table selection listener
         reservationTableView.getSelectionModel().selectedItemProperty().addListener((obs, oldSelection, newSelection) -> {
             viewModel.selectedReservationProperty().set(newSelection);
@@ -203,14 +225,14 @@ public class ReservationViewController {
         // Setup hotel combo box
         hotelComboBox.setItems(viewModel.getHotels());
         hotelComboBox.valueProperty().bindBidirectional(viewModel.selectedHotelProperty());
-        hotelComboBox.setConverter(new StringConverter<Hotel>() {
+        hotelComboBox.setConverter(new StringConverter<HotelSummary>() {
             @Override
-            public String toString(Hotel hotel) {
+            public String toString(HotelSummary hotel) {
                 return hotel == null ? "" : hotel.getName();
             }
 
             @Override
-            public Hotel fromString(String string) {
+            public HotelSummary fromString(String string) {
                 return null; // Not needed for combo box
             }
         });
@@ -245,4 +267,9 @@ public class ReservationViewController {
         // Încarcă rezervările la inițializare
         viewModel.loadAllReservations();
     }
+
+    @Override
+    public void onViewShown() {
+        viewModel.refresh();
+    }
 }
\ No newline at end of file
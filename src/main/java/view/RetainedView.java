@@ -0,0 +1,12 @@
+package view;
+
+/**
+ * Controller of a view that MainViewController builds once and keeps across switches.
+ */
+public interface RetainedView {
+
+    /**
+     * Called each time the already built view is shown again, to bring its data up to date.
+     */
+    void onViewShown();
+}
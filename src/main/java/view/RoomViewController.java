@@ -4,21 +4,23 @@ import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.util.StringConverter;
-import model.Hotel;
+import model.HotelSummary;
 import model.Room;
+import org.example.tema2ps.AppContext;
 import viewmodel.RoomViewModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.time.LocalDate;
 
-public class RoomViewController {
+public class RoomViewController implements RetainedView {
     private static final Logger logger = LoggerFactory.getLogger(RoomViewController.class);
 
+    private final AppContext context;
     private RoomViewModel viewModel;
 
     @FXML
-    private ComboBox<Hotel> hotelComboBox;
+    private ComboBox<HotelSummary> hotelComboBox;
 
     @FXML
     private TextField roomNumberTextField;
@@ -86,9 +88,13 @@ public class RoomViewController {
     @FXML
     private TableColumn<Room, String> roomAmenitiesColumn;
 
+    public RoomViewController(AppContext context) {
+        this.context = context;
+    }
+
     @FXML
     private void initialize() {
-        viewModel = new RoomViewModel();
+        viewModel = context.createRoomViewModel();
 
         // Setup bindings for form fields
         roomNumberTextField.textProperty().bindBidirectional(viewModel.roomNumberProperty());
@@ -171,10 +177,10 @@ public class RoomViewController {
         availabilityDatePicker.valueProperty().bindBidirectional(viewModel.availabilityDateProperty());
 
         // Setup action bindings pentru butoane
-        saveButton.disableProperty().bind(viewModel.saveButtonDisabledProperty());
+        saveButton.disableProperty().bind(viewModel.saveButtonDisabledProperty().or(viewModel.busyProperty()));
         saveButton.onActionProperty().bind(viewModel.saveActionProperty());
 
-        deleteButton.disableProperty().bind(viewModel.selectedRoomProperty().isNull());
+        deleteButton.disableProperty().bind(viewModel.selectedRoomProperty().isNull().or(viewModel.busyProperty()));
         deleteButton.onActionProperty().bind(viewModel.deleteActionProperty());
 
         clearButton.onActionProperty().bind(viewModel.clearActionProperty());
@@ -208,14 +214,14 @@ public class RoomViewController {
         // Setup hotel combo box
         hotelComboBox.setItems(viewModel.getHotels());
         hotelComboBox.valueProperty().bindBidirectional(viewModel.selectedHotelProperty());
-        hotelComboBox.setConverter(new StringConverter<Hotel>() {
+        hotelComboBox.setConverter(new StringConverter<HotelSummary>() {
             @Override
-            public String toString(Hotel hotel) {
+            public String toString(HotelSummary hotel) {
                 return hotel == null ? "" : hotel.getName();
             }
 
             @Override
-            public Hotel fromString(String string) {
+            public HotelSummary fromString(String string) {
                 return null; // Not needed for combo box
             }
         });
@@ -224,4 +230,9 @@ public class RoomViewController {
         roomTypeComboBox.setItems(viewModel.getRoomTypes());
         roomTypeComboBox.valueProperty().bindBidirectional(viewModel.roomTypeProperty());
     }
+
+    @Override
+    public void onViewShown() {
+        viewModel.refresh();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,99 @@
+package viewmodel;
+
+import javafx.application.Platform;
+import javafx.beans.property.ReadOnlyBooleanProperty;
+import javafx.beans.property.ReadOnlyBooleanWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import service.ServiceExecutor;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the asynchronous service calls of one view model. Results are delivered on the JavaFX thread;
+ * calls made under the same key supersede each other, so only the latest one's result is applied.
+ * The view stays busy until every call has actually finished, superseded ones included, and failures are
+ * reported to the view's status message. Must be used from the JavaFX thread.
+ */
+final class AsyncTasks {
+    private static final Logger logger = LoggerFactory.getLogger(AsyncTasks.class);
+
+    private final ReadOnlyBooleanWrapper busy = new ReadOnlyBooleanWrapper(false);
+    private final Map<String, CompletableFuture<?>> latest = new HashMap<>();
+    private final Consumer<String> onFailure;
+    private int pending;
+
+    AsyncTasks(Consumer<String> onFailure) {
+        this.onFailure = onFailure;
+    }
+
+    ReadOnlyBooleanProperty busyProperty() {
+        return busy.getReadOnlyProperty();
+    }
+
+    /**
+     * Cancels the previous call with this key, if still pending, and applies this one's result when it completes.
+     */
+    <T> void latest(String key, CompletableFuture<T> future, Consumer<T> onSuccess) {
+        CompletableFuture<?> previous = latest.put(key, future);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+        track(key, future, onSuccess);
+    }
+
+    /**
+     * Applies the result when the call completes; used for writes, which are never superseded.
+     */
+    <T> void run(CompletableFuture<T> future, Consumer<T> onSuccess) {
+        track(null, future, onSuccess);
+    }
+
+    /**
+     * Cancels the pending call with this key, if any, so its result is never applied.
+     */
+    void cancel(String key) {
+        CompletableFuture<?> previous = latest.remove(key);
+        if (previous != null) {
+            previous.cancel(false);
+        }
+    }
+
+    boolean isPending(String key) {
+        return latest.containsKey(key);
+    }
+
+    private <T> void track(String key, CompletableFuture<T> future, Consumer<T> onSuccess) {
+        pending++;
+        busy.set(true);
+        // A cancelled service task completes at once but may still be running on its worker
+        CompletableFuture<?> settled = future instanceof ServiceExecutor.Task
+                ? ((ServiceExecutor.Task<?>) future).settled()
+                : future;
+        settled.whenComplete((ignored, settledError) -> Platform.runLater(() -> {
+            pending--;
+            busy.set(pending > 0);
+        }));
+
+        future.whenComplete((result, error) -> Platform.runLater(() -> {
+            if (key != null && latest.get(key) == future) {
+                latest.remove(key);
+            }
+            if (future.isCancelled()) {
+                return;
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+                logger.error("Operația asincronă a eșuat", cause);
+                onFailure.accept("Eroare la comunicarea cu baza de date: " +
+                        (cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName()));
+                return;
+            }
+            onSuccess.accept(result);
+        }));
+    }
+}
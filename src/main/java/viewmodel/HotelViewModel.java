@@ -5,17 +5,17 @@ import model.Hotel;
 import model.Location;
 import service.ChainService;
 import service.HotelService;
+import service.LocationService;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
 
-import java.util.List;
-
 public class HotelViewModel {
     private final HotelService hotelService;
     private final ChainService chainService;
+    private final LocationService locationService;
 
     private final ObservableList<Hotel> hotels = FXCollections.observableArrayList();
     private final ObjectProperty<Hotel> selectedHotel = new SimpleObjectProperty<>();
@@ -38,9 +38,15 @@ public class HotelViewModel {
     private final ObjectProperty<Chain> selectedChain = new SimpleObjectProperty<>();
     private final ObservableList<Chain> chains = FXCollections.observableArrayList();
 
+    // Locations offered by the form's location ComboBox
+    private final ObservableList<Location> locations = FXCollections.observableArrayList();
+
     private final BooleanProperty saveButtonDisabled = new SimpleBooleanProperty(true);
     private final StringProperty statusMessage = new SimpleStringProperty("");
 
+    // Service calls run off the FX thread; results are applied back on it
+    private final AsyncTasks tasks = new AsyncTasks(statusMessage::set);
+
     // Action properties pentru butoane
     private final ObjectProperty<EventHandler<ActionEvent>> saveAction = new SimpleObjectProperty<>();
     private final ObjectProperty<EventHandler<ActionEvent>> deleteAction = new SimpleObjectProperty<>();
@@ -48,11 +54,13 @@ public class HotelViewModel {
     private final ObjectProperty<EventHandler<ActionEvent>> filterAction = new SimpleObjectProperty<>();
     private final ObjectProperty<EventHandler<ActionEvent>> resetAction = new SimpleObjectProperty<>();
 
-    public HotelViewModel() {
-        this.hotelService = new HotelService();
-        this.chainService = new ChainService();
+    public HotelViewModel(HotelService hotelService, ChainService chainService, LocationService locationService) {
+        this.hotelService = hotelService;
+        this.chainService = chainService;
+        this.locationService = locationService;
         loadHotels();
         loadChains();
+        loadLocations();
 
         // Bind the saveButton disabled state to name
         saveButtonDisabled.bind(name.isEmpty());
@@ -111,22 +119,34 @@ public class HotelViewModel {
     }
 
     public void loadHotels() {
-        List<Hotel> hotelList = hotelService.getAllHotels();
-        hotels.setAll(hotelList);
+        tasks.latest("hotels", hotelService.getAllHotelsWithoutRoomsAsync(), hotels::setAll);
     }
 
     public void loadHotelsByChain(Chain chain) {
         if (chain != null && chain.getId() != null) {
-            List<Hotel> hotelList = hotelService.getHotelsByChainId(chain.getId());
-            hotels.setAll(hotelList);
+            tasks.latest("hotels", hotelService.getHotelsByChainIdWithoutRoomsAsync(chain.getId()), hotels::setAll);
         } else {
             loadHotels();
         }
     }
 
     public void loadChains() {
-        List<Chain> chainList = chainService.getAllChains();
-        chains.setAll(chainList);
+        tasks.latest("chains", chainService.getChainsWithoutHotelsAsync(), chains::setAll);
+    }
+
+    public void loadLocations() {
+        tasks.latest("locations", locationService.getAllLocationsAsync(), locations::setAll);
+    }
+
+    /**
+     * Called when the retained view is shown again: reloads hotels and chains,
+     * touching the lists only when their contents changed.
+     */
+    public void refresh() {
+        tasks.latest("hotels", hotelService.getAllHotelsWithoutRoomsAsync(),
+                hotelList -> ObservableLists.replaceIfChanged(hotels, hotelList, ObservableLists::sameHotel));
+        tasks.latest("chains", chainService.getChainsWithoutHotelsAsync(),
+                chainList -> ObservableLists.replaceIfChanged(chains, chainList, ObservableLists::sameChain));
     }
 
     public void saveHotel() {
@@ -153,16 +173,21 @@ public class HotelViewModel {
             hotel.setLocationId(location.getId());
         }
 
-        boolean success;
         if (hotelId.get() > 0) {
             hotel.setId(hotelId.get());
-            success = hotelService.updateHotel(hotel);
-            statusMessage.set(success ? "Hotel actualizat cu succes" : "Eroare la actualizarea hotelului");
+            tasks.run(hotelService.updateHotelAsync(hotel), success -> {
+                statusMessage.set(success ? "Hotel actualizat cu succes" : "Eroare la actualizarea hotelului");
+                onHotelSaved(success);
+            });
         } else {
-            success = hotelService.addHotel(hotel);
-            statusMessage.set(success ? "Hotel adăugat cu succes" : "Eroare la adăugarea hotelului");
+            tasks.run(hotelService.addHotelAsync(hotel), success -> {
+                statusMessage.set(success ? "Hotel adăugat cu succes" : "Eroare la adăugarea hotelului");
+                onHotelSaved(success);
+            });
         }
+    }
 
+    private void onHotelSaved(boolean success) {
         if (success) {
             loadHotels();
             clearForm();
@@ -171,13 +196,14 @@ public class HotelViewModel {
 
     public void deleteHotel() {
         if (hotelId.get() > 0) {
-            boolean success = hotelService.deleteHotel(hotelId.get());
-            statusMessage.set(success ? "Hotel șters cu succes" : "Eroare la ștergerea hotelului");
+            tasks.run(hotelService.deleteHotelAsync(hotelId.get()), success -> {
+                statusMessage.set(success ? "Hotel șters cu succes" : "Eroare la ștergerea hotelului");
 
-            if (success) {
-                loadHotels();
-                clearForm();
-            }
+                if (success) {
+                    loadHotels();
+                    clearForm();
+                }
+            });
         }
     }
 
@@ -201,10 +227,18 @@ public class HotelViewModel {
     }
 
     // Getters for observable properties
+    public ReadOnlyBooleanProperty busyProperty() {
+        return tasks.busyProperty();
+    }
+
     public ObservableList<Hotel> getHotels() {
         return hotels;
     }
 
+    public ObservableList<Location> getLocations() {
+        return locations;
+    }
+
     public ObjectProperty<Hotel> selectedHotelProperty() {
         return selectedHotel;
     }
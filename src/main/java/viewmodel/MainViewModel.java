@@ -2,13 +2,16 @@ package viewmodel;
 
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleObjectProperty;
+import org.example.tema2ps.AppContext;
 
 public class MainViewModel {
     private final ObjectProperty<Object> currentView = new SimpleObjectProperty<>();
+    private final AppContext context;
 
-    public MainViewModel() {
+    public MainViewModel(AppContext context) {
+        this.context = context;
         // Initialize with a default view
-        HotelViewModel hotelViewModel = new HotelViewModel();
+        HotelViewModel hotelViewModel = context.createHotelViewModel();
         currentView.set(hotelViewModel);
     }
 
@@ -17,22 +20,22 @@ public class MainViewModel {
     }
 
     public void switchToHotelView() {
-        HotelViewModel hotelViewModel = new HotelViewModel();
+        HotelViewModel hotelViewModel = context.createHotelViewModel();
         currentView.set(hotelViewModel);
     }
 
     public void switchToRoomView() {
-        RoomViewModel roomViewModel = new RoomViewModel();
+        RoomViewModel roomViewModel = context.createRoomViewModel();
         currentView.set(roomViewModel);
     }
 
     public void switchToReservationView() {
-        ReservationViewModel reservationViewModel = new ReservationViewModel();
+        ReservationViewModel reservationViewModel = context.createReservationViewModel();
         currentView.set(reservationViewModel);
     }
 
     public void switchToReportView() {
-        ReportViewModel reportViewModel = new ReportViewModel();
+        ReportViewModel reportViewModel = context.createReportViewModel();
         currentView.set(reportViewModel);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,57 @@
+package viewmodel;
+
+import javafx.collections.ObservableList;
+import model.Chain;
+import model.Hotel;
+import model.HotelSummary;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+
+/**
+ * Helpers for refreshing the lists behind retained views without disturbing them when nothing changed.
+ */
+final class ObservableLists {
+    private ObservableLists() {
+    }
+
+    /**
+     * Replaces the contents of target with source, unless both hold the same elements in the same order.
+     * Leaving an unchanged list alone keeps its selection and avoids re-rendering the controls bound to it.
+     */
+    static <T> boolean replaceIfChanged(ObservableList<T> target, List<T> source, BiPredicate<T, T> sameContent) {
+        if (target.size() == source.size()) {
+            boolean changed = false;
+            for (int i = 0; i < source.size() && !changed; i++) {
+                changed = !sameContent.test(target.get(i), source.get(i));
+            }
+            if (!changed) {
+                return false;
+            }
+        }
+        target.setAll(source);
+        return true;
+    }
+
+    static boolean sameHotel(Hotel a, Hotel b) {
+        return a == b || (Objects.equals(a.getId(), b.getId())
+                && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getPhone(), b.getPhone())
+                && Objects.equals(a.getEmail(), b.getEmail())
+                && Objects.equals(a.getAmenities(), b.getAmenities())
+                && Objects.equals(a.getLocationId(), b.getLocationId())
+                && Objects.equals(a.getChainId(), b.getChainId())
+                && Objects.equals(a.toString(), b.toString()));
+    }
+
+    static boolean sameSummary(HotelSummary a, HotelSummary b) {
+        return a == b || (Objects.equals(a.getId(), b.getId())
+                && Objects.equals(a.getName(), b.getName())
+                && Objects.equals(a.getCity(), b.getCity()));
+    }
+
+    static boolean sameChain(Chain a, Chain b) {
+        return a == b || (Objects.equals(a.getId(), b.getId()) && Objects.equals(a.getName(), b.getName()));
+    }
+}
@@ -1,8 +1,13 @@
 package viewmodel;
 
-import model.Hotel;
+import model.Chain;
+import model.HotelSummary;
+import service.ChainService;
+import service.ExportJob;
 import service.HotelService;
 import service.ReportService;
+import util.ExportFormat;
+import javafx.application.Platform;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
@@ -19,20 +24,46 @@ import java.io.File;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 public class ReportViewModel {
     private static final Logger logger = LoggerFactory.getLogger(ReportViewModel.class);
     private final HotelService hotelService;
+    private final ChainService chainService;
     private final ReportService reportService;
 
-    private final ObservableList<Hotel> hotels = FXCollections.observableArrayList();
-    private final ObjectProperty<Hotel> selectedHotel = new SimpleObjectProperty<>();
+    private final ObservableList<HotelSummary> hotels = FXCollections.observableArrayList();
+    private final ObjectProperty<HotelSummary> selectedHotel = new SimpleObjectProperty<>();
     private final ObjectProperty<LocalDate> reportDate = new SimpleObjectProperty<>(LocalDate.now());
     private final ObjectProperty<LocalDate> startDate = new SimpleObjectProperty<>(LocalDate.now());
     private final ObjectProperty<LocalDate> endDate = new SimpleObjectProperty<>(LocalDate.now().plusDays(1));
 
+    // Chain report bundle: the current month by default
+    private final ObservableList<Chain> chains = FXCollections.observableArrayList();
+    private final ObjectProperty<Chain> selectedChain = new SimpleObjectProperty<>();
+    private final BooleanProperty allHotels = new SimpleBooleanProperty(false);
+    private final ObjectProperty<LocalDate> bundleStartDate = new SimpleObjectProperty<>(LocalDate.now().withDayOfMonth(1));
+    private final ObjectProperty<LocalDate> bundleEndDate = new SimpleObjectProperty<>(
+            LocalDate.now().withDayOfMonth(LocalDate.now().lengthOfMonth()));
+
+    // Formats written together by the "checked formats" exports
+    private final BooleanProperty csvSelected = new SimpleBooleanProperty(true);
+    private final BooleanProperty docxSelected = new SimpleBooleanProperty(false);
+    private final BooleanProperty jsonSelected = new SimpleBooleanProperty(false);
+    private final BooleanProperty xlsxSelected = new SimpleBooleanProperty(false);
+
+    // Incremental export: a new file per export instead of appending to the chosen one
+    private final BooleanProperty rotateChangesFile = new SimpleBooleanProperty(false);
+
     private final StringProperty statusMessage = new SimpleStringProperty("");
+    private final IntegerProperty activeExports = new SimpleIntegerProperty(0);
+    private final Set<Long> activeExportIds = new HashSet<>();
+
+    // Service calls run off the FX thread; results are applied back on it
+    private final AsyncTasks tasks = new AsyncTasks(statusMessage::set);
 
     // Stage pentru file chooser dialogs
     private Stage stage;
@@ -42,17 +73,32 @@ public class ReportViewModel {
     private final ObjectProperty<EventHandler<ActionEvent>> exportReservationsDocAction = new SimpleObjectProperty<>();
     private final ObjectProperty<EventHandler<ActionEvent>> exportRoomsCsvAction = new SimpleObjectProperty<>();
     private final ObjectProperty<EventHandler<ActionEvent>> exportRoomsDocAction = new SimpleObjectProperty<>();
-
-    public ReportViewModel() {
-        this.hotelService = new HotelService();
-        this.reportService = new ReportService();
+    private final ObjectProperty<EventHandler<ActionEvent>> exportReservationsSelectedAction = new SimpleObjectProperty<>();
+    private final ObjectProperty<EventHandler<ActionEvent>> exportRoomsSelectedAction = new SimpleObjectProperty<>();
+    private final ObjectProperty<EventHandler<ActionEvent>> exportBundleAction = new SimpleObjectProperty<>();
+    private final ObjectProperty<EventHandler<ActionEvent>> exportChangesAction = new SimpleObjectProperty<>();
+    private final ObjectProperty<EventHandler<ActionEvent>> cancelExportsAction = new SimpleObjectProperty<>();
+
+    public ReportViewModel(HotelService hotelService, ChainService chainService, ReportService reportService) {
+        this.hotelService = hotelService;
+        this.chainService = chainService;
+        this.reportService = reportService;
         loadHotels();
+        loadChains();
 
         // Setăm acțiunile pentru butoane
         exportReservationsCsvAction.set(event -> exportReservationsToCsv());
         exportReservationsDocAction.set(event -> exportReservationsToDoc());
         exportRoomsCsvAction.set(event -> exportAvailableRoomsToCsv());
         exportRoomsDocAction.set(event -> exportAvailableRoomsToDoc());
+        exportReservationsSelectedAction.set(event -> exportReservationsToSelectedFormats());
+        exportRoomsSelectedAction.set(event -> exportAvailableRoomsToSelectedFormats());
+        exportBundleAction.set(event -> exportChainBundle());
+        exportChangesAction.set(event -> exportReservationChanges());
+        cancelExportsAction.set(event -> cancelExports());
+
+        // Export jobs report from their worker threads
+        reportService.addExportListener(job -> Platform.runLater(() -> onExportJobChanged(job)));
 
         logger.info("ReportViewModel inițializat");
     }
@@ -63,9 +109,24 @@ public class ReportViewModel {
     }
 
     public void loadHotels() {
-        List<Hotel> hotelList = hotelService.getAllHotels();
-        hotels.setAll(hotelList);
-        logger.info("Au fost încărcate {} hoteluri", hotelList.size());
+        tasks.latest("hotels", hotelService.getHotelSummariesAsync(), hotelList -> {
+            hotels.setAll(hotelList);
+            logger.info("Au fost încărcate {} hoteluri", hotelList.size());
+        });
+    }
+
+    public void loadChains() {
+        tasks.latest("chains", chainService.getChainsWithoutHotelsAsync(), chains::setAll);
+    }
+
+    /**
+     * Called when the retained view is shown again.
+     */
+    public void refresh() {
+        tasks.latest("hotels", hotelService.getHotelSummariesAsync(),
+                hotelList -> ObservableLists.replaceIfChanged(hotels, hotelList, ObservableLists::sameSummary));
+        tasks.latest("chains", chainService.getChainsWithoutHotelsAsync(),
+                chainList -> ObservableLists.replaceIfChanged(chains, chainList, ObservableLists::sameChain));
     }
 
     /**
@@ -127,10 +188,9 @@ public class ReportViewModel {
             if (file != null) {
                 logger.info("Fișier selectat pentru salvare: {}", file.getAbsolutePath());
                 LocalDateTime dateTime = reportDate.get().atTime(12, 0); // Noon of the selected date
-                boolean success = reportService.exportReservationsToCsv(selectedHotel.get().getId(), dateTime, file);
-                statusMessage.set(success ? "Raport CSV salvat cu succes" : "Eroare la salvarea raportului CSV");
-                logger.info("Export rezervări în CSV: {}", success ? "Succes" : "Eșuat");
-                return success;
+                // Runs as a background export job; progress and outcome arrive through onExportJobChanged
+                reportService.submitReservationsCsvExport(selectedHotel.get().getId(), dateTime, file);
+                return true;
             } else {
                 logger.info("Export CSV anulat de utilizator");
             }
@@ -175,10 +235,9 @@ public class ReportViewModel {
             if (file != null) {
                 logger.info("Fișier selectat pentru salvare: {}", file.getAbsolutePath());
                 LocalDateTime dateTime = reportDate.get().atTime(12, 0); // Noon of the selected date
-                boolean success = reportService.exportReservationsToDoc(selectedHotel.get().getId(), dateTime, file);
-                statusMessage.set(success ? "Raport DOC salvat cu succes" : "Eroare la salvarea raportului DOC");
-                logger.info("Export rezervări în DOC: {}", success ? "Succes" : "Eșuat");
-                return success;
+                // Runs as a background export job; progress and outcome arrive through onExportJobChanged
+                reportService.submitReservationsDocExport(selectedHotel.get().getId(), dateTime, file);
+                return true;
             } else {
                 logger.info("Export DOC anulat de utilizator");
             }
@@ -230,10 +289,9 @@ public class ReportViewModel {
                 logger.info("Fișier selectat pentru salvare: {}", file.getAbsolutePath());
                 LocalDateTime startDateTime = startDate.get().atStartOfDay();
                 LocalDateTime endDateTime = endDate.get().atTime(LocalTime.MAX);
-                boolean success = reportService.exportAvailableRoomsToCsv(selectedHotel.get().getId(), startDateTime, endDateTime, file);
-                statusMessage.set(success ? "Raport CSV salvat cu succes" : "Eroare la salvarea raportului CSV");
-                logger.info("Export camere disponibile în CSV: {}", success ? "Succes" : "Eșuat");
-                return success;
+                // Runs as a background export job; progress and outcome arrive through onExportJobChanged
+                reportService.submitAvailableRoomsCsvExport(selectedHotel.get().getId(), startDateTime, endDateTime, file);
+                return true;
             } else {
                 logger.info("Export CSV camere anulat de utilizator");
             }
@@ -285,10 +343,9 @@ public class ReportViewModel {
                 logger.info("Fișier selectat pentru salvare: {}", file.getAbsolutePath());
                 LocalDateTime startDateTime = startDate.get().atStartOfDay();
                 LocalDateTime endDateTime = endDate.get().atTime(LocalTime.MAX);
-                boolean success = reportService.exportAvailableRoomsToDoc(selectedHotel.get().getId(), startDateTime, endDateTime, file);
-                statusMessage.set(success ? "Raport DOC salvat cu succes" : "Eroare la salvarea raportului DOC");
-                logger.info("Export camere disponibile în DOC: {}", success ? "Succes" : "Eșuat");
-                return success;
+                // Runs as a background export job; progress and outcome arrive through onExportJobChanged
+                reportService.submitAvailableRoomsDocExport(selectedHotel.get().getId(), startDateTime, endDateTime, file);
+                return true;
             } else {
                 logger.info("Export DOC camere anulat de utilizator");
             }
@@ -299,12 +356,274 @@ public class ReportViewModel {
         return false;
     }
 
+    /**
+     * Exports the reservations to every checked format in one pass; the files share the name picked by the user,
+     * each with its own extension.
+     */
+    public boolean exportReservationsToSelectedFormats() {
+        logger.info("Inițiere export rezervări în formatele selectate");
+        if (selectedHotel.get() == null) {
+            statusMessage.set("Selectați un hotel");
+            logger.warn("Export rezervări eșuat: Hotel neselectat");
+            return false;
+        }
+
+        if (reportDate.get() == null) {
+            statusMessage.set("Selectați o dată pentru raport");
+            logger.warn("Export rezervări eșuat: Dată neselectată");
+            return false;
+        }
+
+        if (!hasSelectedFormat() || !checkStage()) {
+            return false;
+        }
+
+        try {
+            String hotelName = selectedHotel.get().getName().replaceAll("[^a-zA-Z0-9]", "_");
+            File base = chooseBaseFile("Salvare Raport Rezervări", "rezervari_" + hotelName + "_" + reportDate.get());
+            if (base != null) {
+                LocalDateTime dateTime = reportDate.get().atTime(12, 0); // Noon of the selected date
+                reportService.submitReservationsExport(selectedHotel.get().getId(), dateTime, selectedFiles(base));
+                return true;
+            } else {
+                logger.info("Export rezervări anulat de utilizator");
+            }
+        } catch (Exception e) {
+            statusMessage.set("Eroare la exportul rezervărilor: " + e.getMessage());
+            logger.error("Excepție la exportul rezervărilor în formatele selectate", e);
+        }
+        return false;
+    }
+
+    public boolean exportAvailableRoomsToSelectedFormats() {
+        logger.info("Inițiere export camere disponibile în formatele selectate");
+        if (selectedHotel.get() == null) {
+            statusMessage.set("Selectați un hotel");
+            logger.warn("Export camere eșuat: Hotel neselectat");
+            return false;
+        }
+
+        if (startDate.get() == null || endDate.get() == null) {
+            statusMessage.set("Selectați intervalul de date");
+            logger.warn("Export camere eșuat: Interval de date neselectat");
+            return false;
+        }
+
+        if (startDate.get().isAfter(endDate.get())) {
+            statusMessage.set("Data de început nu poate fi după data de sfârșit");
+            logger.warn("Export camere eșuat: Interval de date invalid");
+            return false;
+        }
+
+        if (!hasSelectedFormat() || !checkStage()) {
+            return false;
+        }
+
+        try {
+            String hotelName = selectedHotel.get().getName().replaceAll("[^a-zA-Z0-9]", "_");
+            File base = chooseBaseFile("Salvare Raport Camere Disponibile",
+                    "camere_disponibile_" + hotelName + "_" + startDate.get());
+            if (base != null) {
+                reportService.submitAvailableRoomsExport(selectedHotel.get().getId(), startDate.get().atStartOfDay(),
+                        endDate.get().atTime(LocalTime.MAX), selectedFiles(base));
+                return true;
+            } else {
+                logger.info("Export camere anulat de utilizator");
+            }
+        } catch (Exception e) {
+            statusMessage.set("Eroare la exportul camerelor: " + e.getMessage());
+            logger.error("Excepție la exportul camerelor în formatele selectate", e);
+        }
+        return false;
+    }
+
+    private boolean hasSelectedFormat() {
+        if (csvSelected.get() || docxSelected.get() || jsonSelected.get() || xlsxSelected.get()) {
+            return true;
+        }
+        statusMessage.set("Selectați cel puțin un format");
+        logger.warn("Export eșuat: Niciun format selectat");
+        return false;
+    }
+
+    private File chooseBaseFile(String title, String initialName) {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle(title);
+        fileChooser.setInitialFileName(initialName);
+        File file = fileChooser.showSaveDialog(stage);
+        if (file != null) {
+            logger.info("Fișier selectat pentru salvare: {}", file.getAbsolutePath());
+        }
+        return file;
+    }
+
+    // An extension typed by the user is replaced by the one of each format
+    private Map<ExportFormat, File> selectedFiles(File base) {
+        String name = base.getName();
+        int dot = name.lastIndexOf('.');
+        if (dot > 0) {
+            name = name.substring(0, dot);
+        }
+        Map<ExportFormat, File> files = new EnumMap<>(ExportFormat.class);
+        addIfSelected(files, csvSelected, ExportFormat.CSV, base, name);
+        addIfSelected(files, docxSelected, ExportFormat.DOCX, base, name);
+        addIfSelected(files, jsonSelected, ExportFormat.JSON, base, name);
+        addIfSelected(files, xlsxSelected, ExportFormat.XLSX, base, name);
+        return files;
+    }
+
+    private static void addIfSelected(Map<ExportFormat, File> files, BooleanProperty selected, ExportFormat format,
+                                      File base, String name) {
+        if (selected.get()) {
+            files.put(format, new File(base.getParentFile(), name + "." + format.getExtension()));
+        }
+    }
+
+    /**
+     * Exports the reservations of every hotel of the selected chain (or of all hotels) over the bundle period
+     * into one ZIP archive.
+     */
+    public boolean exportChainBundle() {
+        logger.info("Inițiere export pachet rapoarte");
+        if (!allHotels.get() && selectedChain.get() == null) {
+            statusMessage.set("Selectați un lanț hotelier");
+            logger.warn("Export pachet rapoarte eșuat: Lanț neselectat");
+            return false;
+        }
+
+        if (bundleStartDate.get() == null || bundleEndDate.get() == null) {
+            statusMessage.set("Selectați intervalul de date");
+            logger.warn("Export pachet rapoarte eșuat: Interval de date neselectat");
+            return false;
+        }
+
+        if (bundleStartDate.get().isAfter(bundleEndDate.get())) {
+            statusMessage.set("Data de început nu poate fi după data de sfârșit");
+            logger.warn("Export pachet rapoarte eșuat: Interval de date invalid");
+            return false;
+        }
+
+        if (!checkStage()) {
+            return false;
+        }
+
+        try {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Salvare Pachet Rapoarte");
+            fileChooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter("ZIP Files", "*.zip")
+            );
+
+            Long chainId = allHotels.get() ? null : selectedChain.get().getId();
+            String scope = allHotels.get() ? "toate_hotelurile" : selectedChain.get().getName().replaceAll("[^a-zA-Z0-9]", "_");
+            fileChooser.setInitialFileName("pachet_" + scope + "_" + bundleStartDate.get() + "_" + bundleEndDate.get() + ".zip");
+
+            logger.info("Deschidere dialog FileChooser pentru pachetul de rapoarte");
+            File file = fileChooser.showSaveDialog(stage);
+            if (file != null) {
+                logger.info("Fișier selectat pentru salvare: {}", file.getAbsolutePath());
+                reportService.submitChainBundleExport(chainId, bundleStartDate.get().atStartOfDay(),
+                        bundleEndDate.get().atTime(LocalTime.MAX), file);
+                return true;
+            } else {
+                logger.info("Export pachet rapoarte anulat de utilizator");
+            }
+        } catch (Exception e) {
+            statusMessage.set("Eroare la exportul pachetului de rapoarte: " + e.getMessage());
+            logger.error("Excepție la exportul pachetului de rapoarte", e);
+        }
+        return false;
+    }
+
+    /**
+     * Exports the reservations changed since the last export to the chosen file; picking the same file every time
+     * continues from where the previous export stopped.
+     */
+    public boolean exportReservationChanges() {
+        logger.info("Inițiere export incremental rezervări");
+        if (!checkStage()) {
+            return false;
+        }
+
+        try {
+            FileChooser fileChooser = new FileChooser();
+            fileChooser.setTitle("Export Incremental Rezervări");
+            fileChooser.getExtensionFilters().add(
+                    new FileChooser.ExtensionFilter("CSV Files", "*.csv")
+            );
+            fileChooser.setInitialFileName("rezervari_incremental.csv");
+
+            logger.info("Deschidere dialog FileChooser pentru exportul incremental");
+            File file = fileChooser.showSaveDialog(stage);
+            if (file != null) {
+                logger.info("Fișier selectat pentru exportul incremental: {}", file.getAbsolutePath());
+                if (reportService.submitReservationChangesExport(file, rotateChangesFile.get()) == null) {
+                    statusMessage.set("Un export incremental în " + file.getName() + " este deja în curs");
+                    return false;
+                }
+                return true;
+            } else {
+                logger.info("Export incremental anulat de utilizator");
+            }
+        } catch (Exception e) {
+            statusMessage.set("Eroare la exportul incremental: " + e.getMessage());
+            logger.error("Excepție la exportul incremental al rezervărilor", e);
+        }
+        return false;
+    }
+
+    public void cancelExports() {
+        logger.info("Anulare exporturi în desfășurare");
+        reportService.cancelAllExports();
+    }
+
+    private void onExportJobChanged(ExportJob job) {
+        String name = job.getFile().getName();
+        if (job.isDone()) {
+            activeExportIds.remove(job.getId());
+        } else {
+            activeExportIds.add(job.getId());
+        }
+        activeExports.set(activeExportIds.size());
+
+        switch (job.getState()) {
+            case QUEUED:
+                statusMessage.set("Export în așteptare: " + name);
+                break;
+            case RUNNING:
+                statusMessage.set("Se generează " + name + ": " + job.getRowsWritten() + " rânduri, " +
+                        formatSize(job.getBytesWritten()));
+                break;
+            case COMPLETED:
+                statusMessage.set("Raport salvat cu succes: " + name + " (" + job.getRowsWritten() + " rânduri, " +
+                        formatSize(job.getBytesWritten()) + ")");
+                break;
+            case FAILED:
+                statusMessage.set("Eroare la salvarea raportului " + name);
+                break;
+            case CANCELLED:
+                statusMessage.set("Export anulat: " + name);
+                break;
+        }
+        logger.debug("Export actualizat: {}", job);
+    }
+
+    private static String formatSize(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        }
+        if (bytes < 1024 * 1024) {
+            return (bytes / 1024) + " KB";
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
     // Getters for observable properties
-    public ObservableList<Hotel> getHotels() {
+    public ObservableList<HotelSummary> getHotels() {
         return hotels;
     }
 
-    public ObjectProperty<Hotel> selectedHotelProperty() {
+    public ObjectProperty<HotelSummary> selectedHotelProperty() {
         return selectedHotel;
     }
 
@@ -320,6 +639,46 @@ public class ReportViewModel {
         return endDate;
     }
 
+    public ObservableList<Chain> getChains() {
+        return chains;
+    }
+
+    public ObjectProperty<Chain> selectedChainProperty() {
+        return selectedChain;
+    }
+
+    public BooleanProperty allHotelsProperty() {
+        return allHotels;
+    }
+
+    public ObjectProperty<LocalDate> bundleStartDateProperty() {
+        return bundleStartDate;
+    }
+
+    public ObjectProperty<LocalDate> bundleEndDateProperty() {
+        return bundleEndDate;
+    }
+
+    public BooleanProperty csvSelectedProperty() {
+        return csvSelected;
+    }
+
+    public BooleanProperty docxSelectedProperty() {
+        return docxSelected;
+    }
+
+    public BooleanProperty jsonSelectedProperty() {
+        return jsonSelected;
+    }
+
+    public BooleanProperty xlsxSelectedProperty() {
+        return xlsxSelected;
+    }
+
+    public BooleanProperty rotateChangesFileProperty() {
+        return rotateChangesFile;
+    }
+
     public StringProperty statusMessageProperty() {
         return statusMessage;
     }
@@ -340,4 +699,28 @@ public class ReportViewModel {
     public ObjectProperty<EventHandler<ActionEvent>> exportRoomsDocActionProperty() {
         return exportRoomsDocAction;
     }
+
+    public ObjectProperty<EventHandler<ActionEvent>> exportReservationsSelectedActionProperty() {
+        return exportReservationsSelectedAction;
+    }
+
+    public ObjectProperty<EventHandler<ActionEvent>> exportRoomsSelectedActionProperty() {
+        return exportRoomsSelectedAction;
+    }
+
+    public ObjectProperty<EventHandler<ActionEvent>> exportBundleActionProperty() {
+        return exportBundleAction;
+    }
+
+    public ObjectProperty<EventHandler<ActionEvent>> exportChangesActionProperty() {
+        return exportChangesAction;
+    }
+
+    public ObjectProperty<EventHandler<ActionEvent>> cancelExportsActionProperty() {
+        return cancelExportsAction;
+    }
+
+    public ReadOnlyIntegerProperty activeExportsProperty() {
+        return activeExports;
+    }
 }
\ No newline at end of file
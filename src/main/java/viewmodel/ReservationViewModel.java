@@ -1,20 +1,24 @@
 package viewmodel;
 
-import model.Hotel;
+import model.HotelSummary;
 import model.Reservation;
 import model.Room;
+import repository.IdentityMap;
 import service.HotelService;
 import service.ReservationService;
 import service.RoomService;
+import javafx.animation.PauseTransition;
 import javafx.beans.property.*;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.event.EventHandler;
+import javafx.util.Duration;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import org.slf4j.Logger;
@@ -22,16 +26,36 @@ import org.slf4j.LoggerFactory;
 
 public class ReservationViewModel {
     private static final Logger logger = LoggerFactory.getLogger(ReservationViewModel.class);
+    private static final int RESERVATION_PAGE_SIZE = 100;
+    // Hotel and date changes arriving within this window trigger a single availability refresh
+    private static final double AVAILABILITY_DEBOUNCE_MILLIS = 150;
     private final ReservationService reservationService;
     private final RoomService roomService;
     private final HotelService hotelService;
 
+    // Session identity map: hotels and rooms loaded by this view are shared instances across its queries
+    private final IdentityMap identityMap = new IdentityMap();
+
     private final ObservableList<Reservation> reservations = FXCollections.observableArrayList();
     private final ObjectProperty<Reservation> selectedReservation = new SimpleObjectProperty<>();
 
-    private final ObservableList<Hotel> hotels = FXCollections.observableArrayList();
-    private final ObjectProperty<Hotel> selectedHotel = new SimpleObjectProperty<>();
-
+    // Keyset paging of the reservation table; date and customer filters load their results unpaged
+    private boolean pagingActive;
+    private boolean lastPageLoaded;
+    private Long pagedHotelId;
+    // (start_date, id) of the last row of the last page loaded. The table sorts the list in place,
+    // so its last element is not necessarily where the next page starts.
+    private Reservation pageCursor;
+
+    private final ObservableList<HotelSummary> hotels = FXCollections.observableArrayList();
+    private final ObjectProperty<HotelSummary> selectedHotel = new SimpleObjectProperty<>();
+
+    // All rooms of the selected hotel; availability is filtered from it in memory on date changes
+    private List<Room> hotelRooms = new ArrayList<>();
+    private Long hotelRoomsHotelId;
+    private final PauseTransition availabilityDebounce = new PauseTransition(Duration.millis(AVAILABILITY_DEBOUNCE_MILLIS));
+    // Set while a selected reservation is copied into the form, which changes the hotel without the user filtering by it
+    private boolean applyingReservationSelection;
     private final ObservableList<Room> availableRooms = FXCollections.observableArrayList();
     private final ObjectProperty<Room> selectedRoom = new SimpleObjectProperty<>();
 
@@ -51,6 +75,9 @@ public class ReservationViewModel {
     private final BooleanProperty saveButtonDisabled = new SimpleBooleanProperty(true);
     private final StringProperty statusMessage = new SimpleStringProperty("");
 
+    // Service calls run off the FX thread; results are applied back on it
+    private final AsyncTasks tasks = new AsyncTasks(statusMessage::set);
+
     // Action properties pentru butoane
     private final ObjectProperty<EventHandler<ActionEvent>> saveAction = new SimpleObjectProperty<>();
     private final ObjectProperty<EventHandler<ActionEvent>> deleteAction = new SimpleObjectProperty<>();
@@ -59,17 +86,14 @@ public class ReservationViewModel {
     private final ObjectProperty<EventHandler<ActionEvent>> searchAction = new SimpleObjectProperty<>();
     private final ObjectProperty<EventHandler<ActionEvent>> resetFiltersAction = new SimpleObjectProperty<>();
 
-    public ReservationViewModel() {
-        this.reservationService = new ReservationService();
-        this.roomService = new RoomService();
-        this.hotelService = new HotelService();
+    public ReservationViewModel(ReservationService reservationService, RoomService roomService, HotelService hotelService) {
+        this.reservationService = reservationService;
+        this.roomService = roomService;
+        this.hotelService = hotelService;
 
         // Încărcăm toate hotelurile
         loadHotels();
 
-        // Încărcăm toate rezervările la început pentru a verifica funcționarea
-        loadAllReservations();
-
         // Bind the saveButton disabled state
         saveButtonDisabled.bind(customerName.isEmpty()
                 .or(selectedRoom.isNull())
@@ -91,76 +115,159 @@ public class ReservationViewModel {
             }
         });
 
+        availabilityDebounce.setOnFinished(event -> refreshAvailability());
+
         // Add listener to selected hotel property to load rooms for that hotel
         selectedHotel.addListener((observable, oldValue, newValue) -> {
-            if (newValue != null) {
-                logger.info("Hotel selectat: {} (ID: {})", newValue.getName(), newValue.getId());
-                // Încărcăm toate rezervările pentru hotelul selectat (fără filtrare după dată)
-                loadReservationsByHotelId(newValue.getId());
-                updateAvailableRooms();
-            } else {
-                logger.info("Niciun hotel selectat, se afișează toate rezervările");
-                loadAllReservations();
-                availableRooms.clear();
+            // Selecting a reservation keeps the table as it is, so the clerk can keep clicking through it
+            if (!applyingReservationSelection) {
+                if (newValue != null) {
+                    logger.info("Hotel selectat: {} (ID: {})", newValue.getName(), newValue.getId());
+                    // Încărcăm toate rezervările pentru hotelul selectat (fără filtrare după dată)
+                    loadReservationsByHotelId(newValue.getId());
+                } else {
+                    logger.info("Niciun hotel selectat, se afișează toate rezervările");
+                    loadAllReservations();
+                }
             }
+            scheduleAvailabilityRefresh();
         });
 
         // Add listeners to check-in and check-out dates to update available rooms
-        checkInDate.addListener((observable, oldValue, newValue) -> updateAvailableRooms());
-        checkOutDate.addListener((observable, oldValue, newValue) -> updateAvailableRooms());
+        checkInDate.addListener((observable, oldValue, newValue) -> scheduleAvailabilityRefresh());
+        checkOutDate.addListener((observable, oldValue, newValue) -> scheduleAvailabilityRefresh());
 
         // Add listener to selected room property to calculate price
         selectedRoom.addListener((observable, oldValue, newValue) -> calculateTotalPrice());
 
         // Add listener to selected reservation property
         selectedReservation.addListener((observable, oldValue, newValue) -> {
-            if (newValue != null) {
-                logger.info("Rezervare selectată: {}", newValue.getId());
-                reservationId.set(newValue.getId());
-                checkInDate.set(newValue.getStartDate().toLocalDate());
-                checkOutDate.set(newValue.getEndDate().toLocalDate());
-                customerName.set(newValue.getCustomerName());
-                customerEmail.set(newValue.getCustomerEmail());
-                customerPhone.set(newValue.getCustomerPhone());
-                totalPrice.set(newValue.getTotalPrice() != null ? newValue.getTotalPrice() : 0.0);
-                paymentStatus.set(newValue.getPaymentStatus());
-
-                // Set room and hotel if not already set
-                if (newValue.getRoom() != null) {
-                    logger.info("Camera rezervării: {}", newValue.getRoom().getRoomNumber());
-                    selectedRoom.set(newValue.getRoom());
-
-                    if (newValue.getRoom().getHotel() != null) {
-                        logger.info("Hotelul camerei: {}", newValue.getRoom().getHotel().getName());
-                        selectedHotel.set(newValue.getRoom().getHotel());
-                    } else if (selectedHotel.get() == null || !selectedHotel.get().getId().equals(newValue.getRoom().getHotelId())) {
-                        for (Hotel hotel : hotels) {
-                            if (hotel.getId().equals(newValue.getRoom().getHotelId())) {
-                                selectedHotel.set(hotel);
-                                break;
-                            }
+            boolean nested = applyingReservationSelection;
+            applyingReservationSelection = true;
+            try {
+                applyReservationSelection(newValue);
+            } finally {
+                applyingReservationSelection = nested;
+            }
+        });
+    }
+
+    private void applyReservationSelection(Reservation newValue) {
+        if (newValue != null) {
+            logger.info("Rezervare selectată: {}", newValue.getId());
+            reservationId.set(newValue.getId());
+            checkInDate.set(newValue.getStartDate().toLocalDate());
+            checkOutDate.set(newValue.getEndDate().toLocalDate());
+            customerName.set(newValue.getCustomerName());
+            customerEmail.set(newValue.getCustomerEmail());
+            customerPhone.set(newValue.getCustomerPhone());
+            totalPrice.set(newValue.getTotalPrice() != null ? newValue.getTotalPrice() : 0.0);
+            paymentStatus.set(newValue.getPaymentStatus());
+
+            // Set room and hotel if not already set
+            if (newValue.getRoom() != null) {
+                logger.info("Camera rezervării: {}", newValue.getRoom().getRoomNumber());
+                selectedRoom.set(newValue.getRoom());
+
+                if (selectedHotel.get() == null || !selectedHotel.get().getId().equals(newValue.getRoom().getHotelId())) {
+                    for (HotelSummary hotel : hotels) {
+                        if (hotel.getId().equals(newValue.getRoom().getHotelId())) {
+                            selectedHotel.set(hotel);
+                            break;
                         }
                     }
                 }
-            } else {
-                clearReservationFields();
             }
-        });
+        } else {
+            clearReservationFields();
+        }
     }
 
-    // Încărcăm toate rezervările
+    // Încărcăm prima pagină din toate rezervările
     public void loadAllReservations() {
-        List<Reservation> reservationList = reservationService.getAllReservations();
-        logger.info("Au fost încărcate {} rezervări", reservationList.size());
-        reservations.setAll(reservationList);
+        startPaging(null);
     }
 
-    // Încărcăm rezervările pentru un hotel specific (fără filtrare după dată)
+    // Încărcăm prima pagină din rezervările unui hotel (fără filtrare după dată)
     public void loadReservationsByHotelId(Long hotelId) {
-        List<Reservation> reservationList = reservationService.getReservationsByHotelId(hotelId);
-        logger.info("Au fost încărcate {} rezervări pentru hotelul cu ID-ul {}",
-                reservationList.size(), hotelId);
-        reservations.setAll(reservationList);
+        startPaging(hotelId);
+    }
+
+    /**
+     * Appends the next page to the reservation table, if the table is showing a paged listing that is not exhausted.
+     */
+    public void loadNextReservationPage() {
+        // A page, or a new listing, is already on its way
+        if (!pagingActive || lastPageLoaded || tasks.isPending("reservations")) {
+            return;
+        }
+
+        Reservation after = pageCursor;
+        tasks.latest("reservations",
+                identityMap.call(() -> reservationService.getReservationsPageAsync(pagedHotelId, after, RESERVATION_PAGE_SIZE)),
+                identityMap.refreshing(page -> {
+                    lastPageLoaded = page.size() < RESERVATION_PAGE_SIZE;
+                    advancePageCursor(page);
+                    reservations.addAll(page);
+                    logger.info("Au fost încărcate încă {} rezervări (total afișate: {})", page.size(), reservations.size());
+                }));
+    }
+
+    private void startPaging(Long hotelId) {
+        pagingActive = true;
+        lastPageLoaded = false;
+        pagedHotelId = hotelId;
+        pageCursor = null;
+
+        tasks.latest("reservations",
+                identityMap.call(() -> reservationService.getReservationsPageAsync(hotelId, null, RESERVATION_PAGE_SIZE)),
+                identityMap.refreshing(page -> {
+                    lastPageLoaded = page.size() < RESERVATION_PAGE_SIZE;
+                    advancePageCursor(page);
+                    reservations.setAll(page);
+                    logger.info("Au fost încărcate {} rezervări (prima pagină){}", page.size(),
+                            hotelId != null ? " pentru hotelul cu ID-ul " + hotelId : "");
+                }));
+    }
+
+    // Only the key is kept, so editing the row afterwards does not move the cursor
+    private void advancePageCursor(List<Reservation> page) {
+        if (page.isEmpty()) {
+            return;
+        }
+        Reservation last = page.get(page.size() - 1);
+        Reservation cursor = new Reservation();
+        cursor.setId(last.getId());
+        cursor.setStartDate(last.getStartDate());
+        pageCursor = cursor;
+    }
+
+    private void scheduleAvailabilityRefresh() {
+        availabilityDebounce.playFromStart();
+    }
+
+    // Runs once per burst of hotel/date changes: reloads the hotel's rooms only when the hotel changed
+    private void refreshAvailability() {
+        HotelSummary hotel = selectedHotel.get();
+        if (hotel == null) {
+            tasks.cancel("hotelRooms");
+            hotelRooms = new ArrayList<>();
+            hotelRoomsHotelId = null;
+            updateAvailableRooms();
+        } else if (!hotel.getId().equals(hotelRoomsHotelId)) {
+            loadHotelRooms(hotel.getId());
+        } else {
+            updateAvailableRooms();
+        }
+    }
+
+    private void loadHotelRooms(Long hotelId) {
+        tasks.latest("hotelRooms", identityMap.call(() -> roomService.getRoomsByHotelIdAsync(hotelId)),
+                identityMap.refreshing(roomList -> {
+                    hotelRooms = roomList;
+                    hotelRoomsHotelId = hotelId;
+                    updateAvailableRooms();
+                }));
     }
 
     private void updateAvailableRooms() {
@@ -169,27 +276,28 @@ public class ReservationViewModel {
             LocalDateTime startDateTime = checkInDate.get().atStartOfDay();
             LocalDateTime endDateTime = checkOutDate.get().atTime(LocalTime.MAX);
 
-            List<Room> roomList = roomService.getAvailableRoomsByHotelIdAndDate(
-                    selectedHotel.get().getId(), startDateTime, endDateTime);
-
-            // If editing an existing reservation, include the currently selected room
-            if (reservationId.get() > 0 && selectedRoom.get() != null) {
-                boolean roomExists = false;
-                for (Room room : roomList) {
-                    if (room.getId().equals(selectedRoom.get().getId())) {
-                        roomExists = true;
-                        break;
+            tasks.latest("availableRooms", roomService.filterAvailableRoomsAsync(selectedHotel.get().getId(), hotelRooms,
+                    startDateTime, endDateTime), roomList -> {
+                // If editing an existing reservation, include the currently selected room
+                if (reservationId.get() > 0 && selectedRoom.get() != null) {
+                    boolean roomExists = false;
+                    for (Room room : roomList) {
+                        if (room.getId().equals(selectedRoom.get().getId())) {
+                            roomExists = true;
+                            break;
+                        }
+                    }
+                    if (!roomExists) {
+                        roomList.add(selectedRoom.get());
                     }
                 }
-                if (!roomExists) {
-                    roomList.add(selectedRoom.get());
-                }
-            }
 
-            availableRooms.setAll(roomList);
-            logger.info("Au fost găsite {} camere disponibile pentru intervalul {} - {}",
-                    roomList.size(), startDateTime, endDateTime);
+                availableRooms.setAll(roomList);
+                logger.info("Au fost găsite {} camere disponibile pentru intervalul {} - {}",
+                        roomList.size(), startDateTime, endDateTime);
+            });
         } else {
+            tasks.cancel("availableRooms");
             availableRooms.clear();
         }
     }
@@ -213,25 +321,46 @@ public class ReservationViewModel {
     }
 
     public void loadHotels() {
-        List<Hotel> hotelList = hotelService.getAllHotels();
-        hotels.setAll(hotelList);
-        logger.info("Au fost încărcate {} hoteluri", hotelList.size());
+        tasks.latest("hotels", hotelService.getHotelSummariesAsync(), hotelList -> {
+            hotels.setAll(hotelList);
+            logger.info("Au fost încărcate {} hoteluri", hotelList.size());
+        });
+    }
+
+    /**
+     * Called when the retained view is shown again: picks up hotels changed in the hotel view
+     * and the rooms of the selected hotel, which the room view may have changed. The reservation table is kept.
+     */
+    public void refresh() {
+        tasks.latest("hotels", hotelService.getHotelSummariesAsync(),
+                hotelList -> ObservableLists.replaceIfChanged(hotels, hotelList, ObservableLists::sameSummary));
+        // Rooms may have changed in the room view
+        hotelRoomsHotelId = null;
+        scheduleAvailabilityRefresh();
     }
 
     public void loadReservationsByHotelAndDate(Long hotelId, LocalDate date) {
         // Convert LocalDate to LocalDateTime at noon (middle of the day)
         LocalDateTime dateTime = date.atTime(12, 0);
 
-        List<Reservation> reservationList = reservationService.getReservationsByHotelIdAndDate(hotelId, dateTime);
-        logger.info("Au fost găsite {} rezervări pentru hotel {} la data {}",
-                reservationList.size(), hotelId, date);
-        reservations.setAll(reservationList);
+        pagingActive = false;
+        tasks.latest("reservations",
+                identityMap.call(() -> reservationService.getReservationsByHotelIdAndDateAsync(hotelId, dateTime)),
+                identityMap.refreshing(reservationList -> {
+                    logger.info("Au fost găsite {} rezervări pentru hotel {} la data {}",
+                            reservationList.size(), hotelId, date);
+                    reservations.setAll(reservationList);
+                }));
     }
 
     public void loadReservationsByCustomerName(String name) {
-        List<Reservation> reservationList = reservationService.getReservationsByCustomerName(name);
-        logger.info("Au fost găsite {} rezervări pentru clientul {}", reservationList.size(), name);
-        reservations.setAll(reservationList);
+        pagingActive = false;
+        tasks.latest("reservations",
+                identityMap.call(() -> reservationService.getReservationsByCustomerNameAsync(name)),
+                identityMap.refreshing(reservationList -> {
+                    logger.info("Au fost găsite {} rezervări pentru clientul {}", reservationList.size(), name);
+                    reservations.setAll(reservationList);
+                }));
     }
 
     public void saveReservation() {
@@ -260,16 +389,30 @@ public class ReservationViewModel {
         reservation.setTotalPrice(totalPrice.get());
         reservation.setPaymentStatus(paymentStatus.get());
 
-        boolean success;
         if (reservationId.get() > 0) {
             reservation.setId(reservationId.get());
-            success = reservationService.updateReservation(reservation);
-            statusMessage.set(success ? "Rezervare actualizată cu succes" : "Eroare la actualizarea rezervării");
+            tasks.run(reservationService.updateReservationAsync(reservation), success -> {
+                statusMessage.set(success ? "Rezervare actualizată cu succes" : "Eroare la actualizarea rezervării");
+                onReservationChanged(success);
+            });
         } else {
-            success = reservationService.addReservation(reservation);
-            statusMessage.set(success ? "Rezervare adăugată cu succes" : "Eroare la adăugarea rezervării");
+            tasks.run(reservationService.addReservationAsync(reservation), success -> {
+                statusMessage.set(success ? "Rezervare adăugată cu succes" : "Eroare la adăugarea rezervării");
+                onReservationChanged(success);
+            });
+        }
+    }
+
+    public void deleteReservation() {
+        if (reservationId.get() > 0) {
+            tasks.run(reservationService.deleteReservationAsync(reservationId.get()), success -> {
+                statusMessage.set(success ? "Rezervare ștearsă cu succes" : "Eroare la ștergerea rezervării");
+                onReservationChanged(success);
+            });
         }
+    }
 
+    private void onReservationChanged(boolean success) {
         if (success) {
             if (selectedHotel.get() != null) {
                 // Reîncărcăm rezervările pentru hotelul selectat
@@ -282,24 +425,6 @@ public class ReservationViewModel {
         }
     }
 
-    public void deleteReservation() {
-        if (reservationId.get() > 0) {
-            boolean success = reservationService.deleteReservation(reservationId.get());
-            statusMessage.set(success ? "Rezervare ștearsă cu succes" : "Eroare la ștergerea rezervării");
-
-            if (success) {
-                if (selectedHotel.get() != null) {
-                    // Reîncărcăm rezervările pentru hotelul selectat
-                    loadReservationsByHotelId(selectedHotel.get().getId());
-                } else {
-                    // Reîncărcăm toate rezervările
-                    loadAllReservations();
-                }
-                clearReservationFields();
-            }
-        }
-    }
-
     public void filterReservationsByDate() {
         if (selectedHotel.get() != null && filterDate.get() != null) {
             loadReservationsByHotelAndDate(selectedHotel.get().getId(), filterDate.get());
@@ -334,6 +459,10 @@ public class ReservationViewModel {
     }
 
     // Getters for observable properties
+    public ReadOnlyBooleanProperty busyProperty() {
+        return tasks.busyProperty();
+    }
+
     public ObservableList<Reservation> getReservations() {
         return reservations;
     }
@@ -342,11 +471,11 @@ public class ReservationViewModel {
         return selectedReservation;
     }
 
-    public ObservableList<Hotel> getHotels() {
+    public ObservableList<HotelSummary> getHotels() {
         return hotels;
     }
 
-    public ObjectProperty<Hotel> selectedHotelProperty() {
+    public ObjectProperty<HotelSummary> selectedHotelProperty() {
         return selectedHotel;
     }
 
@@ -1,7 +1,8 @@
 package viewmodel;
 
-import model.Hotel;
+import model.HotelSummary;
 import model.Room;
+import repository.IdentityMap;
 import service.HotelService;
 import service.RoomService;
 import javafx.beans.property.*;
@@ -13,7 +14,6 @@ import javafx.event.EventHandler;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -22,11 +22,14 @@ public class RoomViewModel {
     private final RoomService roomService;
     private final HotelService hotelService;
 
+    // Session identity map: hotels and rooms loaded by this view are shared instances across its queries
+    private final IdentityMap identityMap = new IdentityMap();
+
     private final ObservableList<Room> rooms = FXCollections.observableArrayList();
     private final ObjectProperty<Room> selectedRoom = new SimpleObjectProperty<>();
 
-    private final ObservableList<Hotel> hotels = FXCollections.observableArrayList();
-    private final ObjectProperty<Hotel> selectedHotel = new SimpleObjectProperty<>();
+    private final ObservableList<HotelSummary> hotels = FXCollections.observableArrayList();
+    private final ObjectProperty<HotelSummary> selectedHotel = new SimpleObjectProperty<>();
 
     private final LongProperty roomId = new SimpleLongProperty(0);
     private final StringProperty roomNumber = new SimpleStringProperty("");
@@ -45,6 +48,9 @@ public class RoomViewModel {
     private final BooleanProperty saveButtonDisabled = new SimpleBooleanProperty(true);
     private final StringProperty statusMessage = new SimpleStringProperty("");
 
+    // Service calls run off the FX thread; results are applied back on it
+    private final AsyncTasks tasks = new AsyncTasks(statusMessage::set);
+
     // Action properties pentru butoane
     private final ObjectProperty<EventHandler<ActionEvent>> saveAction = new SimpleObjectProperty<>();
     private final ObjectProperty<EventHandler<ActionEvent>> deleteAction = new SimpleObjectProperty<>();
@@ -53,9 +59,9 @@ public class RoomViewModel {
     private final ObjectProperty<EventHandler<ActionEvent>> availabilityFilterAction = new SimpleObjectProperty<>();
     private final ObjectProperty<EventHandler<ActionEvent>> resetFiltersAction = new SimpleObjectProperty<>();
 
-    public RoomViewModel() {
-        this.roomService = new RoomService();
-        this.hotelService = new HotelService();
+    public RoomViewModel(RoomService roomService, HotelService hotelService) {
+        this.roomService = roomService;
+        this.hotelService = hotelService;
         loadHotels();
         loadRoomTypes();
 
@@ -75,6 +81,7 @@ public class RoomViewModel {
             if (newValue != null) {
                 loadRoomsByHotel(newValue.getId());
             } else {
+                tasks.cancel("rooms");
                 rooms.clear();
             }
         });
@@ -99,7 +106,7 @@ public class RoomViewModel {
 
                 // Set hotel if not already set
                 if (selectedHotel.get() == null || !selectedHotel.get().getId().equals(newValue.getHotelId())) {
-                    for (Hotel hotel : hotels) {
+                    for (HotelSummary hotel : hotels) {
                         if (hotel.getId().equals(newValue.getHotelId())) {
                             selectedHotel.set(hotel);
                             break;
@@ -113,18 +120,31 @@ public class RoomViewModel {
     }
 
     public void loadHotels() {
-        List<Hotel> hotelList = hotelService.getAllHotels();
-        hotels.setAll(hotelList);
+        tasks.latest("hotels", hotelService.getHotelSummariesAsync(), hotels::setAll);
+    }
+
+    /**
+     * Called when the retained view is shown again: picks up hotels and room types changed in other views.
+     */
+    public void refresh() {
+        tasks.latest("hotels", hotelService.getHotelSummariesAsync(),
+                hotelList -> ObservableLists.replaceIfChanged(hotels, hotelList, ObservableLists::sameSummary));
+        tasks.latest("roomTypes", roomService.getAllRoomTypesAsync(), types -> {
+            if (!types.isEmpty()) {
+                ObservableLists.replaceIfChanged(roomTypes, types, String::equals);
+            }
+        });
     }
 
     public void loadRoomsByHotel(Long hotelId) {
-        List<Room> roomList = roomService.getRoomsByHotelId(hotelId);
-        rooms.setAll(roomList);
+        tasks.latest("rooms", identityMap.call(() -> roomService.getRoomsByHotelIdAsync(hotelId)),
+                identityMap.refreshing(rooms::setAll));
     }
 
     public void loadRoomsByHotelAndPriceRange(Long hotelId, Double minPrice, Double maxPrice) {
-        List<Room> roomList = roomService.getRoomsByHotelIdAndPriceRange(hotelId, minPrice, maxPrice);
-        rooms.setAll(roomList);
+        tasks.latest("rooms",
+                identityMap.call(() -> roomService.getRoomsByHotelIdAndPriceRangeAsync(hotelId, minPrice, maxPrice)),
+                identityMap.refreshing(rooms::setAll));
     }
 
     public void loadAvailableRoomsByHotelAndDate(Long hotelId, LocalDate date) {
@@ -132,18 +152,20 @@ public class RoomViewModel {
         LocalDateTime startDateTime = date.atStartOfDay();
         LocalDateTime endDateTime = date.atTime(LocalTime.MAX);
 
-        List<Room> roomList = roomService.getAvailableRoomsByHotelIdAndDate(hotelId, startDateTime, endDateTime);
-        rooms.setAll(roomList);
+        tasks.latest("rooms",
+                identityMap.call(() -> roomService.getAvailableRoomsByHotelIdAndDateAsync(hotelId, startDateTime, endDateTime)),
+                identityMap.refreshing(rooms::setAll));
     }
 
     public void loadRoomTypes() {
-        List<String> types = roomService.getAllRoomTypes();
-        roomTypes.setAll(types);
+        tasks.latest("roomTypes", roomService.getAllRoomTypesAsync(), types -> {
+            roomTypes.setAll(types);
 
-        // Add common room types if the list is empty
-        if (types.isEmpty()) {
-            roomTypes.addAll("Single", "Double", "Twin", "Suite", "Deluxe", "Family", "Presidential");
-        }
+            // Add common room types if the list is empty
+            if (types.isEmpty()) {
+                roomTypes.addAll("Single", "Double", "Twin", "Suite", "Deluxe", "Family", "Presidential");
+            }
+        });
     }
 
     public void saveRoom() {
@@ -162,16 +184,21 @@ public class RoomViewModel {
 
         logger.debug("Salvăm camera cu capacitatea: {}", capacity.get());
 
-        boolean success;
         if (roomId.get() > 0) {
             room.setId(roomId.get());
-            success = roomService.updateRoom(room);
-            statusMessage.set(success ? "Cameră actualizată cu succes" : "Eroare la actualizarea camerei");
+            tasks.run(roomService.updateRoomAsync(room), success -> {
+                statusMessage.set(success ? "Cameră actualizată cu succes" : "Eroare la actualizarea camerei");
+                onRoomChanged(success);
+            });
         } else {
-            success = roomService.addRoom(room);
-            statusMessage.set(success ? "Cameră adăugată cu succes" : "Eroare la adăugarea camerei");
+            tasks.run(roomService.addRoomAsync(room), success -> {
+                statusMessage.set(success ? "Cameră adăugată cu succes" : "Eroare la adăugarea camerei");
+                onRoomChanged(success);
+            });
         }
+    }
 
+    private void onRoomChanged(boolean success) {
         if (success && selectedHotel.get() != null) {
             loadRoomsByHotel(selectedHotel.get().getId());
             clearRoomFields();
@@ -180,13 +207,10 @@ public class RoomViewModel {
 
     public void deleteRoom() {
         if (roomId.get() > 0) {
-            boolean success = roomService.deleteRoom(roomId.get());
-            statusMessage.set(success ? "Cameră ștearsă cu succes" : "Eroare la ștergerea camerei");
-
-            if (success && selectedHotel.get() != null) {
-                loadRoomsByHotel(selectedHotel.get().getId());
-                clearRoomFields();
-            }
+            tasks.run(roomService.deleteRoomAsync(roomId.get()), success -> {
+                statusMessage.set(success ? "Cameră ștearsă cu succes" : "Eroare la ștergerea camerei");
+                onRoomChanged(success);
+            });
         }
     }
 
@@ -223,6 +247,10 @@ public class RoomViewModel {
     }
 
     // Getters for observable properties
+    public ReadOnlyBooleanProperty busyProperty() {
+        return tasks.busyProperty();
+    }
+
     public ObservableList<Room> getRooms() {
         return rooms;
     }
@@ -231,11 +259,11 @@ public class RoomViewModel {
         return selectedRoom;
     }
 
-    public ObservableList<Hotel> getHotels() {
+    public ObservableList<HotelSummary> getHotels() {
         return hotels;
     }
 
-    public ObjectProperty<Hotel> selectedHotelProperty() {
+    public ObjectProperty<HotelSummary> selectedHotelProperty() {
         return selectedHotel;
     }
 
@@ -0,0 +1,3 @@
+-- Supports the per-room overlap probes (availability search and booking conflict check):
+-- equality on id_camera, then a range on start_date, with end_date read from the index.
+CREATE INDEX idx_rezervari_camera_perioada ON rezervari (id_camera, start_date, end_date);
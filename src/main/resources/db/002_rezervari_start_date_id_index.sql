@@ -0,0 +1,2 @@
+-- Supports keyset pagination of the reservation list, ordered by (start_date DESC, id DESC).
+CREATE INDEX idx_rezervari_start_date_id ON rezervari (start_date, id);
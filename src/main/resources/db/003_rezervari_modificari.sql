@@ -0,0 +1,14 @@
+-- Change tracking for the incremental reservation export.
+-- Required: reservation inserts, updates and deletes write these, and the application refuses to start without them.
+-- updated_at is set by ReservationRepository on every insert and update; existing rows start at the migration time.
+ALTER TABLE rezervari
+    ADD COLUMN updated_at DATETIME(6) NOT NULL DEFAULT CURRENT_TIMESTAMP(6);
+-- Supports the range scan of the rows changed since the last export.
+CREATE INDEX idx_rezervari_updated_at ON rezervari (updated_at, id);
+
+-- One tombstone per deleted reservation, written in the same transaction as the DELETE.
+CREATE TABLE rezervari_sterse (
+    id         BIGINT      NOT NULL PRIMARY KEY,
+    deleted_at DATETIME(6) NOT NULL,
+    INDEX idx_rezervari_sterse_deleted_at (deleted_at)
+);